@@ -15,17 +15,22 @@ import java.io.ByteArrayOutputStream;
 import hudson.model.StreamBuildListener;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.StaplerRequest;
+import net.sf.json.JSONObject;
 
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Launcher;
 import hudson.Util;
 import hudson.model.AbstractProject;
+import hudson.model.Computer;
 import hudson.model.Item;
 import hudson.model.Run;
 import hudson.model.TaskListener;
@@ -38,6 +43,11 @@ import hudson.util.ListBoxModel.Option;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 import jenkins.tasks.SimpleBuildStep;
 import org.kohsuke.stapler.AncestorInPath;
@@ -56,6 +66,21 @@ public class VisualExpertBuilder extends Builder implements SimpleBuildStep {
     private String _reportPath;
     private String _reportFormat;
     private boolean _generateReport = false;
+    private String _analysisIncludes;
+    private String _analysisExcludes;
+    private String _documentationIncludes;
+    private String _documentationExcludes;
+    private String _transientErrorPatterns;
+    private Integer _maxRetries = DEFAULT_MAX_RETRIES;
+    private Integer _retryDelaySeconds = DEFAULT_RETRY_DELAY_SECONDS;
+    private boolean _snapshotState;
+    private String _projectStatePath;
+
+    // Default number of retries of a phase failing on a transient error
+    public static final int DEFAULT_MAX_RETRIES = 2;
+
+    // Default delay before the first retry, doubled for each next retry
+    public static final int DEFAULT_RETRY_DELAY_SECONDS = 30;
 
     // Visual Expert Application default installation path
     private static final String DEFAULT_INSTALLATION_PATH = "C:\\Program Files\\Novalys\\Visual Expert 2024\\";
@@ -68,6 +93,9 @@ public class VisualExpertBuilder extends Builder implements SimpleBuildStep {
     
     public static final String CONSOLE_EXE_NAME ="NOVALYS.VISUALEXPERT.CONSOLE.COMMANDLINE.EXE";
 
+    // Code inspection report format read by the plugin itself
+    public static final String JSON_REPORT_FORMAT = "JSON";
+
     /**
      *
      * //@param installPath: Visual Expert application (Executable) containing directory path
@@ -93,6 +121,21 @@ public class VisualExpertBuilder extends Builder implements SimpleBuildStep {
         this._createCodeReviewDocument = createCodeReviewDocument;
     }
 
+    // Jobs saved before retries existed do not have the retry fields, apply the defaults
+    protected Object readResolve() {
+        if (_maxRetries == null) {
+            _maxRetries = DEFAULT_MAX_RETRIES;
+        }
+        if (_retryDelaySeconds == null) {
+            _retryDelaySeconds = DEFAULT_RETRY_DELAY_SECONDS;
+        }
+        // Jobs saved with the defaults of an earlier version follow the current defaults
+        if (_transientErrorPatterns != null && VisualExpertFailureClassifier.IsDefault(_transientErrorPatterns)) {
+            _transientErrorPatterns = null;
+        }
+        return this;
+    }
+
 //    public VisualExpertBuilder(String installPath) {
 //        this._installPath =  installPath;
 //    }
@@ -140,6 +183,96 @@ public class VisualExpertBuilder extends Builder implements SimpleBuildStep {
     public boolean isCreateCodeReviewDocument() {
         return _createCodeReviewDocument;
     }
+
+    public String getAnalysisIncludes() {
+        return _analysisIncludes;
+    }
+
+    // Ant patterns of changed SCM paths which require the project to be analyzed (empty means any path)
+    @DataBoundSetter
+    public void setAnalysisIncludes(String analysisIncludes) {
+        this._analysisIncludes = Util.fixEmptyAndTrim(analysisIncludes);
+    }
+
+    public String getAnalysisExcludes() {
+        return _analysisExcludes;
+    }
+
+    // Ant patterns of changed SCM paths which never require the project to be analyzed
+    @DataBoundSetter
+    public void setAnalysisExcludes(String analysisExcludes) {
+        this._analysisExcludes = Util.fixEmptyAndTrim(analysisExcludes);
+    }
+
+    public String getDocumentationIncludes() {
+        return _documentationIncludes;
+    }
+
+    // Ant patterns of changed SCM paths which require the documentation to be generated (empty means any path)
+    @DataBoundSetter
+    public void setDocumentationIncludes(String documentationIncludes) {
+        this._documentationIncludes = Util.fixEmptyAndTrim(documentationIncludes);
+    }
+
+    public String getDocumentationExcludes() {
+        return _documentationExcludes;
+    }
+
+    // Ant patterns of changed SCM paths which never require the documentation to be generated
+    @DataBoundSetter
+    public void setDocumentationExcludes(String documentationExcludes) {
+        this._documentationExcludes = Util.fixEmptyAndTrim(documentationExcludes);
+    }
+
+    // Regular expressions (one per line) of console output lines telling a failure is transient
+    public String getTransientErrorPatterns() {
+        return _transientErrorPatterns == null ? VisualExpertFailureClassifier.DEFAULT_TRANSIENT_PATTERNS : _transientErrorPatterns;
+    }
+
+    @DataBoundSetter
+    public void setTransientErrorPatterns(String transientErrorPatterns) {
+        // Default table is not stored, so that the job follows later changes of the defaults
+        this._transientErrorPatterns = Util.fixEmptyAndTrim(transientErrorPatterns) == null || VisualExpertFailureClassifier.IsDefault(transientErrorPatterns)
+                ? null : transientErrorPatterns.trim();
+    }
+
+    public int getMaxRetries() {
+        return _maxRetries == null ? DEFAULT_MAX_RETRIES : _maxRetries;
+    }
+
+    @DataBoundSetter
+    public void setMaxRetries(int maxRetries) {
+        this._maxRetries = Math.max(maxRetries, 0);
+    }
+
+    public int getRetryDelaySeconds() {
+        return _retryDelaySeconds == null ? DEFAULT_RETRY_DELAY_SECONDS : _retryDelaySeconds;
+    }
+
+    @DataBoundSetter
+    public void setRetryDelaySeconds(int retryDelaySeconds) {
+        this._retryDelaySeconds = retryDelaySeconds > 0 ? retryDelaySeconds : DEFAULT_RETRY_DELAY_SECONDS;
+    }
+
+    public boolean isSnapshotState() {
+        return _snapshotState;
+    }
+
+    // Restores the project analysis state before analysis and saves it after a successful analysis
+    @DataBoundSetter
+    public void setSnapshotState(boolean snapshotState) {
+        this._snapshotState = snapshotState;
+    }
+
+    public String getProjectStatePath() {
+        return _projectStatePath;
+    }
+
+    // Folder of the agent holding the Visual Expert project analysis state
+    @DataBoundSetter
+    public void setProjectStatePath(String projectStatePath) {
+        this._projectStatePath = Util.fixEmptyAndTrim(projectStatePath);
+    }
 	// Returns Array list of Visual Expert Projects
     public ArrayList<String> getProjectList() {
         if (null == projectList || projectList.isEmpty()) {
@@ -169,6 +302,31 @@ public class VisualExpertBuilder extends Builder implements SimpleBuildStep {
 
     @Override
     public void perform(Run<?, ?> run, FilePath workspace, Launcher launcher, TaskListener listener) throws InterruptedException, IOException {
+
+        Map<String, Long> phaseDurations = new LinkedHashMap<String, Long>();
+        Set<String> upToDatePhases = new TreeSet<String>();
+        List<VisualExpertIssueIndex> reports = new ArrayList<VisualExpertIssueIndex>();
+        String status = VisualExpertPhasesAction.STATUS_FAILURE;
+
+        try {
+            status = performPhases(run, workspace, launcher, listener, phaseDurations, upToDatePhases, reports);
+        } catch (InterruptedException e) {
+            status = VisualExpertPhasesAction.STATUS_ABORTED;
+            throw e;
+        } finally {
+            // Always attached, even when the step fails or is aborted, the results index reads it when the build completes
+            run.addAction(new VisualExpertPhasesAction(_projectName, upToDatePhases, status, phaseDurations, reports.isEmpty() ? null : reports.get(0)));
+        }
+    }
+
+    /**
+     *
+     * @param phaseDurations: receives the duration of each phase which ran
+     * @param upToDatePhases: receives the phases which are up to date at the end of the step
+     * @param reports: receives the JSON code inspection report read by the step, if any
+     * @return status of the step recorded in the results index
+     */
+    private String performPhases(Run<?, ?> run, FilePath workspace, Launcher launcher, TaskListener listener, Map<String, Long> phaseDurations, Set<String> upToDatePhases, List<VisualExpertIssueIndex> reports) throws InterruptedException, IOException {
         
         VisualExpertInstallation ai = getInstallPath();
         
@@ -176,10 +334,16 @@ public class VisualExpertBuilder extends Builder implements SimpleBuildStep {
             listener.getLogger().println("Do not find installation path.");
             listener.getLogger().println(Messages.VisualExpertBuilder_DescriptorImpl_errors_installPathNotSet());
             run.setResult(Result.FAILURE);
-            return;
+            return VisualExpertPhasesAction.STATUS_FAILURE;
         }
         
         String installPath = ai.getHome();
+
+        // Never run against a project a background pre-warming analysis is still processing
+        Computer computer = workspace.toComputer();
+        if (computer != null) {
+            VisualExpertPrewarmWork.YieldTo(computer.getName(), listener);
+        }
         
         listener.getLogger().println("Installation Path: " + installPath);
         String veConsoleExe = getConsoleExePath(installPath);
@@ -192,91 +356,206 @@ public class VisualExpertBuilder extends Builder implements SimpleBuildStep {
         listener.getLogger().println("Generate Reference Documentation: " + _createReferenceDocument);
         listener.getLogger().println("Generate Code Review Documentation: " + _createCodeReviewDocument);
 
-        String visualExpertCommandOutputFileName = null;
+        // Skip phases whose sources are not touched by the SCM changes since they were last up to date
+        boolean doAnalysis = _doAnalysis;
+        boolean createReferenceDocument = _createReferenceDocument;
+        boolean createCodeReviewDocument = _createCodeReviewDocument;
+
+        if (doAnalysis) {
+            VisualExpertChangeFilter.Decision decision = VisualExpertChangeFilter.Evaluate(run, _projectName, VisualExpertChangeFilter.ANALYSIS_PHASE, _analysisIncludes, _analysisExcludes);
+            doAnalysis = decision.isRun();
+            listener.getLogger().println((doAnalysis ? "Running" : "Skipping") + " Analyze Project: " + decision.getReason());
+        }
+
+        // Each documentation is evaluated against the builds where it was generated itself
+        if (createReferenceDocument) {
+            VisualExpertChangeFilter.Decision decision = VisualExpertChangeFilter.Evaluate(run, _projectName, VisualExpertChangeFilter.REFERENCE_PHASE, _documentationIncludes, _documentationExcludes);
+            createReferenceDocument = decision.isRun();
+            listener.getLogger().println((createReferenceDocument ? "Running" : "Skipping") + " Generate Reference Documentation: " + decision.getReason());
+        }
+
+        if (createCodeReviewDocument) {
+            VisualExpertChangeFilter.Decision decision = VisualExpertChangeFilter.Evaluate(run, _projectName, VisualExpertChangeFilter.CODE_REVIEW_PHASE, _documentationIncludes, _documentationExcludes);
+            createCodeReviewDocument = decision.isRun();
+            listener.getLogger().println((createCodeReviewDocument ? "Running" : "Skipping") + " Generate Code Review Documentation: " + decision.getReason());
+        }
+
         boolean isAnalysisSucceeded = true;
         boolean isReferenceDocumentGenerated = true;
         boolean isCodeReviewDocumentGenerated = true;
 
-        if (_doAnalysis) {
+        // Each phase is retried on its own on transient failures, succeeded phases are never run again
+        if (doAnalysis) {
 
-            // Get Visual Expert Command Output file name, Visual Expert will write command output to this file
-            visualExpertCommandOutputFileName = VisualExpertHelper.GetVisualExpertCommandOutputFile();
+            String analyzeCommand = veConsoleExe + " " + " -a -p '" + _projectName + "'";
 
-            // Get the output task listener
-            TaskListener taskListener = VisualExpertHelper.GetVisualExpertCommandOutputListener(visualExpertCommandOutputFileName);
-            
             if(_generateReport){
                      
                 if (Util.fixEmptyAndTrim(_reportPath) == null) {
                      listener.getLogger().println(Messages.VisualExpertBuilder_DescriptorImpl_errors_missingOutputPath());
-                     return;
+                     return VisualExpertPhasesAction.STATUS_FAILURE;
                 } 
-                else
-                {
-                    //launcher.launch().cmds(VisualExpertHelper.GetCommandLine(veConsoleExe + " " + "-v" )).stdout(taskListener).join();
-                    
-                    //launcher.launch().stdout(taskListener);
-                    
-                    //int result = launcher.launch().join();
-                    //listener.getLogger().println(result);
-                    
-                    //String versionInfo = listener.getLogger().toString();
-                    //listener.getLogger().println(versionInfo);
-                    
-                    //listener.getLogger().println("Start");
-                    // Call Analyze Visual Expert Project Command with code inspection report
-                    launcher.launch().cmds(VisualExpertHelper.GetCommandLine(veConsoleExe + " " + " -a -p '" + _projectName + "'" + " -O '"+ _reportPath + "'" + " --ReportFormat '" + _reportFormat + "'")).stdout(taskListener).join();
+
+                // Call Analyze Visual Expert Project Command with code inspection report
+                analyzeCommand = analyzeCommand + " -O '"+ _reportPath + "'" + " --ReportFormat '" + _reportFormat + "'";
+            }
+
+            // Start from the last saved analysis state so that only changes have to be analyzed
+            FilePath projectStateDir = null;
+            VisualExpertSnapshotStore snapshotStore = null;
+
+            if (_snapshotState) {
+                if (Util.fixEmptyAndTrim(_projectStatePath) == null) {
+                    listener.getLogger().println(Messages.VisualExpertBuilder_DescriptorImpl_errors_missingProjectStatePath());
+                } else {
+                    projectStateDir = workspace.child(run.getEnvironment(listener).expand(_projectStatePath));
+                    snapshotStore = new VisualExpertSnapshotStore(((Descriptor) getDescriptor()).getSnapshotStorePath());
+                    try {
+                        // A pre-warming analysis may have changed the state folder since the last build step
+                        boolean verifyState = computer != null && VisualExpertPrewarmWork.MayHaveChanged(computer.getName(), _projectName);
+                        snapshotStore.restore(_projectName, projectStateDir, verifyState, listener);
+                    } catch (IOException e) {
+                        listener.getLogger().println("Failed to restore Visual Expert project state: " + e.getMessage());
+                    }
                 }
             }
-            else
-            {
-                launcher.launch().cmds(VisualExpertHelper.GetCommandLine(veConsoleExe + " " + " -a -p '" + _projectName + "'")).stdout(taskListener).join();
+
+            isAnalysisSucceeded = runPhase("Analyze Project", analyzeCommand, ANALYZE_PROJECT_SUCCESS_STRING, workspace, launcher, listener, phaseDurations);
+
+            if (isAnalysisSucceeded && snapshotStore != null) {
+                try {
+                    snapshotStore.save(_projectName, projectStateDir, listener);
+                } catch (IOException e) {
+                    listener.getLogger().println("Failed to save Visual Expert project state: " + e.getMessage());
+                }
+            }
+
+            // Index JSON code inspection report so that issues can be browsed from the build
+            if (isAnalysisSucceeded && _generateReport && JSON_REPORT_FORMAT.equals(_reportFormat)) {
+                VisualExpertIssueIndex report = indexJsonReport(run, workspace.child(_reportPath), listener);
+                if (report != null) {
+                    reports.add(report);
+                }
             }
-            
-            // Verify Visual Expert Comamnd Output File for Command Success/failure
-            isAnalysisSucceeded = VisualExpertHelper.VerifyOutput(visualExpertCommandOutputFileName, ANALYZE_PROJECT_SUCCESS_STRING, true, listener);
         }
         
         // if Generate Reference Documentation check box is selected
-        if (_createReferenceDocument) {
-
-            // Get Visual Expert Command Output file name, Visual Expert will write command output to this file
-            if (null == visualExpertCommandOutputFileName) {
-                visualExpertCommandOutputFileName = VisualExpertHelper.GetVisualExpertCommandOutputFile();
-            }
+        if (createReferenceDocument) {
 
-            // Get the output task listener
-            TaskListener taskListener = VisualExpertHelper.GetVisualExpertCommandOutputListener(visualExpertCommandOutputFileName);
-            
             // Call Generate Reference Documenation Visual Expert Project Comamnd 
-            launcher.launch().cmds(VisualExpertHelper.GetCommandLine(veConsoleExe + " " + " -d -p '" + _projectName + "'" + " -t reference")).stdout(taskListener).join();
-            
-            // Verify Visual Expert Comamnd Output File for Command Success/failure
-            isReferenceDocumentGenerated = VisualExpertHelper.VerifyOutput(visualExpertCommandOutputFileName, GENERATE_DOCUMENTATION_SUCCESS_STRING, true, listener);
+            isReferenceDocumentGenerated = runPhase("Generate Reference Documentation", veConsoleExe + " " + " -d -p '" + _projectName + "'" + " -t reference", GENERATE_DOCUMENTATION_SUCCESS_STRING, workspace, launcher, listener, phaseDurations);
         }
 		
 	// if Generate Code Review Documentation check box is selected
-        if (_createCodeReviewDocument) {
+        if (createCodeReviewDocument) {
+
+            // Call Generate Code Review Documenation Visual Expert Project Comamnd 
+            isCodeReviewDocumentGenerated = runPhase("Generate Code Review Documentation", veConsoleExe + " " + " -d -p '" + _projectName + "'" + " -t codereview", GENERATE_DOCUMENTATION_SUCCESS_STRING, workspace, launcher, listener, phaseDurations);
+        }
+
+        boolean isSucceeded = isAnalysisSucceeded && isReferenceDocumentGenerated && isCodeReviewDocumentGenerated;
+
+        // Remember which phases are up to date, later builds collect changes from this build on
+        if (_doAnalysis && isAnalysisSucceeded) {
+            upToDatePhases.add(VisualExpertChangeFilter.ANALYSIS_PHASE);
+        }
+        if (_createReferenceDocument && isReferenceDocumentGenerated) {
+            upToDatePhases.add(VisualExpertChangeFilter.REFERENCE_PHASE);
+        }
+        if (_createCodeReviewDocument && isCodeReviewDocumentGenerated) {
+            upToDatePhases.add(VisualExpertChangeFilter.CODE_REVIEW_PHASE);
+        }
+
+        // Fail the build if any of the command(s) are failed
+        if (!isSucceeded) {
+            run.setResult(Result.FAILURE);
+            return VisualExpertPhasesAction.STATUS_FAILURE;
+        }
+
+        return phaseDurations.isEmpty() ? VisualExpertPhasesAction.STATUS_SKIPPED : VisualExpertPhasesAction.STATUS_SUCCESS;
+    }
+
+    /**
+     *
+     * @param phaseName: phase name written to the build log
+     * @param commandLine: Visual Expert console command line of the phase
+     * @param successString: console output message telling the command succeeded
+     * @param workspace: working directory of the command
+     * @param phaseDurations: receives the phase duration, retries included
+     * @return true if the command succeeded, at the first attempt or after retrying transient failures
+     */
+    private boolean runPhase(String phaseName, String commandLine, String successString, FilePath workspace, Launcher launcher, TaskListener listener, Map<String, Long> phaseDurations) throws IOException, InterruptedException {
+
+        long start = System.currentTimeMillis();
+
+        try {
+            return runPhaseWithRetries(phaseName, commandLine, successString, workspace, launcher, listener);
+        } finally {
+            phaseDurations.put(phaseName, System.currentTimeMillis() - start);
+        }
+    }
+
+    private boolean runPhaseWithRetries(String phaseName, String commandLine, String successString, FilePath workspace, Launcher launcher, TaskListener listener) throws IOException, InterruptedException {
+
+        for (int attempt = 1; ; attempt++) {
 
             // Get Visual Expert Command Output file name, Visual Expert will write command output to this file
-            if (null == visualExpertCommandOutputFileName) {
-                visualExpertCommandOutputFileName = VisualExpertHelper.GetVisualExpertCommandOutputFile();
-            }
+            String visualExpertCommandOutputFileName = VisualExpertHelper.GetVisualExpertCommandOutputFile();
 
             // Get the output task listener
             TaskListener taskListener = VisualExpertHelper.GetVisualExpertCommandOutputListener(visualExpertCommandOutputFileName);
-            
-            // Call Generate Code Review Documenation Visual Expert Project Comamnd 
-            launcher.launch().cmds(VisualExpertHelper.GetCommandLine(veConsoleExe + " " + " -d -p '" + _projectName + "'" + " -t codereview")).stdout(taskListener).join();
-            
+
+            // Run from the workspace so that relative paths (report output path) are resolved the same way as by the plugin
+            launcher.launch().cmds(VisualExpertHelper.GetCommandLine(commandLine)).pwd(workspace).stdout(taskListener).join();
+
             // Verify Visual Expert Comamnd Output File for Command Success/failure
-            isCodeReviewDocumentGenerated = VisualExpertHelper.VerifyOutput(visualExpertCommandOutputFileName, GENERATE_DOCUMENTATION_SUCCESS_STRING, true, listener);
+            if (VisualExpertHelper.VerifyOutput(visualExpertCommandOutputFileName, successString, true, listener)) {
+                return true;
+            }
+
+            String transientFailure = VisualExpertFailureClassifier.FindTransientFailure(visualExpertCommandOutputFileName, getTransientErrorPatterns());
+
+            if (transientFailure == null) {
+                listener.getLogger().println(phaseName + " failed, failure is not transient.");
+                return false;
+            }
+
+            int maxRetries = getMaxRetries();
+
+            if (attempt > maxRetries) {
+                listener.getLogger().println(phaseName + " failed on transient error '" + transientFailure + "', no retry left (" + maxRetries + " allowed).");
+                return false;
+            }
+
+            long delay = VisualExpertFailureClassifier.GetRetryDelayMillis(attempt, getRetryDelaySeconds());
+            listener.getLogger().println(phaseName + " failed on transient error '" + transientFailure + "', retry " + attempt + "/" + maxRetries + " in " + TimeUnit.MILLISECONDS.toSeconds(delay) + " seconds.");
+            Thread.sleep(delay);
         }
+    }
 
-        // Fail the build if any of the command(s) are failed
-        if (!isAnalysisSucceeded || !isReferenceDocumentGenerated || !isCodeReviewDocumentGenerated) {
-            run.setResult(Result.FAILURE);
+    // Reads JSON code inspection report and attaches its issue index to the build, returns null if it can not be read
+    private static VisualExpertIssueIndex indexJsonReport(Run<?, ?> run, FilePath reportFile, TaskListener listener) throws IOException, InterruptedException {
+
+        if (!reportFile.exists()) {
+            listener.getLogger().println("Code Inspection Report not found: " + reportFile.getRemote());
+            return null;
+        }
+
+        VisualExpertIssueIndex index;
+
+        try (InputStream report = reportFile.read()) {
+            index = VisualExpertJsonReportReader.Read(report);
+        } catch (IOException e) {
+            listener.getLogger().println("Failed to read Code Inspection Report " + reportFile.getRemote() + ": " + e.getMessage());
+            return null;
         }
+
+        index.write(VisualExpertReportAction.GetIndexFile(run));
+        run.replaceAction(new VisualExpertReportAction(index));
+
+        listener.getLogger().println("Code Inspection Issues: " + index.getSize());
+
+        return index;
     }
 
     @Symbol("visualexpert")
@@ -286,6 +565,14 @@ public class VisualExpertBuilder extends Builder implements SimpleBuildStep {
          @CopyOnWrite
         private volatile VisualExpertInstallation[] installations = new VisualExpertInstallation[0];
 
+        // Snapshot store folder of the controller, set by administrators only (empty means JENKINS_HOME/visualexpert-snapshots)
+        private String snapshotStorePath;
+
+        // Reads back both the snapshot store folder and the tool installations written by setInstallations
+        public Descriptor() {
+            load();
+        }
+
         @Override
         public boolean isApplicable(Class<? extends AbstractProject> aClass) {
             return true;
@@ -305,6 +592,17 @@ public class VisualExpertBuilder extends Builder implements SimpleBuildStep {
             save();
         }
 
+        public String getSnapshotStorePath() {
+            return snapshotStorePath;
+        }
+
+        @Override
+        public boolean configure(StaplerRequest req, JSONObject json) throws FormException {
+            this.snapshotStorePath = Util.fixEmptyAndTrim(json.optString("snapshotStorePath"));
+            save();
+            return true;
+        }
+
         public VisualExpertInstallation.DescriptorImpl getToolDescriptor() {
             return ToolInstallation.all().get(VisualExpertInstallation.DescriptorImpl.class);
         }
@@ -346,11 +644,23 @@ public class VisualExpertBuilder extends Builder implements SimpleBuildStep {
             return FormValidation.ok();
         }
 
+        @POST
+        public FormValidation doCheckTransientErrorPatterns(@AncestorInPath Item item, @QueryParameter String value) {
+
+            if (item == null || !item.hasPermission(Item.CONFIGURE)) { 
+                return FormValidation.ok();
+            }
+
+            String error = VisualExpertFailureClassifier.Validate(value);
+
+            return error == null ? FormValidation.ok() : FormValidation.error(Messages.VisualExpertBuilder_DescriptorImpl_errors_invalidPattern(error));
+        }
+
         public ListBoxModel doFillReportFormatItems() {
                 ListBoxModel items = new ListBoxModel();
 
                 items.add("JUNIT", "JUNIT");
-                //items.add("JSON", "JSON");
+                items.add(JSON_REPORT_FORMAT, JSON_REPORT_FORMAT);
 
                 return items;
         }
@@ -0,0 +1,212 @@
+package io.jenkins.plugins.VisualExpert;
+
+import hudson.Util;
+import hudson.model.Run;
+import hudson.scm.ChangeLogSet;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import jenkins.scm.RunWithSCM;
+import org.apache.tools.ant.types.selectors.SelectorUtils;
+
+/**
+ * Decides whether a Visual Expert phase has to run for a build by matching the paths touched by the
+ * SCM change sets since the phase was last up to date against Ant style include / exclude patterns.
+ */
+public class VisualExpertChangeFilter {
+
+    // Result of the evaluation of one phase, reason is written to the build log
+    public static final class Decision {
+
+        private final boolean _run;
+        private final String _reason;
+
+        Decision(boolean run, String reason) {
+            this._run = run;
+            this._reason = reason;
+        }
+
+        public boolean isRun() {
+            return _run;
+        }
+
+        public String getReason() {
+            return _reason;
+        }
+    }
+
+    // Phase names stored in VisualExpertPhasesAction
+    public static final String ANALYSIS_PHASE = "analysis";
+    public static final String REFERENCE_PHASE = "reference";
+    public static final String CODE_REVIEW_PHASE = "codereview";
+
+    private static final Decision NO_FILTER = new Decision(true, "no change filter configured");
+
+    // Maximum number of builds walked back to find the last up to date build
+    private static final int MAX_BUILDS_WALKED = 100;
+
+    /**
+     * Collects the paths changed since the phase was last up to date, so that changes of failed or
+     * aborted builds are not lost when a later build only touches unrelated files.
+     *
+     * @param run: current build
+     * @param projectName: Visual Expert project name
+     * @param phase: {@link #ANALYSIS_PHASE}, {@link #REFERENCE_PHASE} or {@link #CODE_REVIEW_PHASE}
+     * @return paths affected by the change sets of the current build and of every previous build
+     * since the last one where the phase was up to date, or null if that can not be determined
+     */
+    public static List<String> GetChangedPaths(Run<?, ?> run, String projectName, String phase) {
+
+        List<String> paths = new ArrayList<String>();
+        Run<?, ?> build = run;
+
+        for (int walked = 0; walked < MAX_BUILDS_WALKED; walked++) {
+
+            if (!(build instanceof RunWithSCM)) {
+                return null;
+            }
+
+            for (ChangeLogSet<? extends ChangeLogSet.Entry> changeSet : ((RunWithSCM<?, ?>) build).getChangeSets()) {
+                for (ChangeLogSet.Entry entry : changeSet) {
+                    Collection<String> affectedPaths = entry.getAffectedPaths();
+                    if (affectedPaths != null) {
+                        paths.addAll(affectedPaths);
+                    }
+                }
+            }
+
+            build = build.getPreviousBuild();
+
+            // No build where the phase was up to date, everything must be processed
+            if (build == null) {
+                return null;
+            }
+
+            if (IsUpToDate(build, projectName, phase)) {
+                return paths;
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean IsUpToDate(Run<?, ?> build, String projectName, String phase) {
+
+        for (VisualExpertPhasesAction action : build.getActions(VisualExpertPhasesAction.class)) {
+            if (action.isUpToDate(projectName, phase)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Evaluates a phase of a build, reading the change sets of previous builds only when a filter is configured.
+     *
+     * @param run: current build
+     * @param projectName: Visual Expert project name
+     * @param phase: {@link #ANALYSIS_PHASE}, {@link #REFERENCE_PHASE} or {@link #CODE_REVIEW_PHASE}
+     * @param includes: comma or new line separated Ant patterns, empty means every path
+     * @param excludes: comma or new line separated Ant patterns, empty means no path
+     * @return decision telling if the phase must run and why
+     */
+    public static Decision Evaluate(Run<?, ?> run, String projectName, String phase, String includes, String excludes) {
+
+        if (SplitPatterns(includes).isEmpty() && SplitPatterns(excludes).isEmpty()) {
+            return NO_FILTER;
+        }
+
+        return Evaluate(GetChangedPaths(run, projectName, phase), includes, excludes);
+    }
+
+    /**
+     *
+     * @param changedPaths: paths changed by the build (null when unknown)
+     * @param includes: comma or new line separated Ant patterns, empty means every path
+     * @param excludes: comma or new line separated Ant patterns, empty means no path
+     * @return decision telling if the phase must run and why
+     */
+    public static Decision Evaluate(List<String> changedPaths, String includes, String excludes) {
+
+        List<String> includePatterns = SplitPatterns(includes);
+        List<String> excludePatterns = SplitPatterns(excludes);
+
+        if (includePatterns.isEmpty() && excludePatterns.isEmpty()) {
+            return NO_FILTER;
+        }
+
+        // Without change information we can not prove the phase is useless, so keep it
+        if (changedPaths == null) {
+            return new Decision(true, "no SCM change information since the phase was last up to date");
+        }
+
+        if (changedPaths.isEmpty()) {
+            return new Decision(true, "no SCM change recorded since the phase was last up to date");
+        }
+
+        for (String path : changedPaths) {
+            if (Matches(path, includePatterns, excludePatterns)) {
+                return new Decision(true, "changed path '" + path + "' matches the change filter");
+            }
+        }
+
+        return new Decision(false, "none of the " + changedPaths.size() + " changed path(s) matches the change filter"
+                + " (includes: '" + Util.fixNull(includes).trim() + "', excludes: '" + Util.fixNull(excludes).trim() + "')");
+    }
+
+    private static boolean Matches(String path, List<String> includePatterns, List<String> excludePatterns) {
+
+        String normalizedPath = Normalize(path);
+
+        boolean included = includePatterns.isEmpty();
+        for (String pattern : includePatterns) {
+            if (SelectorUtils.matchPath(pattern, normalizedPath, false)) {
+                included = true;
+                break;
+            }
+        }
+
+        if (!included) {
+            return false;
+        }
+
+        for (String pattern : excludePatterns) {
+            if (SelectorUtils.matchPath(pattern, normalizedPath, false)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static List<String> SplitPatterns(String patterns) {
+
+        List<String> result = new ArrayList<String>();
+
+        if (Util.fixEmptyAndTrim(patterns) == null) {
+            return result;
+        }
+
+        for (String pattern : patterns.split("[,\\r\\n]+")) {
+            pattern = Util.fixEmptyAndTrim(pattern);
+            if (pattern == null) {
+                continue;
+            }
+            pattern = Normalize(pattern);
+            // Same as Ant file sets, a trailing separator means everything below that folder
+            if (pattern.endsWith(File.separator)) {
+                pattern = pattern + "**";
+            }
+            result.add(pattern);
+        }
+
+        return result;
+    }
+
+    // SCM paths always use '/', Ant matching splits on the platform separator
+    private static String Normalize(String path) {
+        return path.replace('\\', '/').replace('/', File.separatorChar);
+    }
+}
@@ -0,0 +1,111 @@
+package io.jenkins.plugins.VisualExpert;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Job;
+import hudson.model.RootAction;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+/**
+ * Dashboard of the latest Visual Expert results of all jobs, served from {@link VisualExpertResultsIndex}.
+ * The same data is available as JSON from the "json" URL.
+ */
+@Extension
+public class VisualExpertDashboard implements RootAction {
+
+    @Override
+    public String getIconFileName() {
+        return "document.png";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Visual Expert Dashboard";
+    }
+
+    @Override
+    public String getUrlName() {
+        return "visualexpert-dashboard";
+    }
+
+    // Project entries of the jobs the current user can read
+    public List<VisualExpertResultsIndex.ProjectEntry> getProjects() {
+
+        Jenkins jenkins = Jenkins.get();
+        jenkins.checkPermission(Jenkins.READ);
+
+        List<VisualExpertResultsIndex.ProjectEntry> visible = new ArrayList<VisualExpertResultsIndex.ProjectEntry>();
+
+        for (VisualExpertResultsIndex.ProjectEntry project : VisualExpertResultsIndex.get().getProjects()) {
+            if (jenkins.getItemByFullName(project.getJob(), Job.class) != null) {
+                visible.add(project);
+            }
+        }
+
+        return visible;
+    }
+
+    public Job<?, ?> getJob(String fullName) {
+        return Jenkins.get().getItemByFullName(fullName, Job.class);
+    }
+
+    public String formatDuration(long millis) {
+        return Util.getTimeSpanString(millis);
+    }
+
+    public void doJson(StaplerRequest req, StaplerResponse rsp) throws IOException {
+
+        JSONArray projects = new JSONArray();
+
+        for (VisualExpertResultsIndex.ProjectEntry project : getProjects()) {
+
+            JSONArray trend = new JSONArray();
+            for (VisualExpertResultsIndex.BuildEntry build : project.getBuilds()) {
+                trend.add(ToJson(build));
+            }
+
+            JSONObject entry = new JSONObject();
+            entry.put("job", project.getJob());
+            entry.put("projectName", project.getProjectName());
+            entry.put("latest", project.getLatest() == null ? null : ToJson(project.getLatest()));
+            entry.put("builds", trend);
+            projects.add(entry);
+        }
+
+        JSONObject result = new JSONObject();
+        result.put("projects", projects);
+
+        rsp.setContentType("application/json;charset=UTF-8");
+        rsp.getWriter().print(result.toString());
+    }
+
+    private static JSONObject ToJson(VisualExpertResultsIndex.BuildEntry build) {
+
+        JSONObject durations = new JSONObject();
+        for (Map.Entry<String, Long> phase : build.getPhaseDurations().entrySet()) {
+            durations.put(phase.getKey(), phase.getValue());
+        }
+
+        JSONObject severities = new JSONObject();
+        for (Map.Entry<String, Integer> severity : build.getSeverityCounts().entrySet()) {
+            severities.put(severity.getKey(), severity.getValue());
+        }
+
+        JSONObject json = new JSONObject();
+        json.put("number", build.getNumber());
+        json.put("timestamp", build.getTimestamp());
+        json.put("status", build.getStatus());
+        json.put("issueCount", build.getIssueCount());
+        json.put("phaseDurations", durations);
+        json.put("severityCounts", severities);
+        return json;
+    }
+}
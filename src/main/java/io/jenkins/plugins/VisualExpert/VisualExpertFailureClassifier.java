@@ -0,0 +1,169 @@
+package io.jenkins.plugins.VisualExpert;
+
+import hudson.Util;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Classifies a failed Visual Expert command as transient (worth retrying) or permanent by matching
+ * the command output against a table of regular expressions, and computes the retry delays.
+ */
+public class VisualExpertFailureClassifier {
+
+    private static final Logger LOGGER = Logger.getLogger(VisualExpertFailureClassifier.class.getName());
+
+    // Console error messages of transient conditions only, informational lines mentioning a lock or a license never match:
+    // file in use (.NET IOException), locked repository (SQL Server lock timeout and deadlock victim),
+    // license contention (error line about a license in use or not available)
+    public static final String DEFAULT_TRANSIENT_PATTERNS = "\\bIOException: The process cannot access the file .* because it is being used by another process\n"
+            + "\\bLock request time out period exceeded\n"
+            + "\\bwas deadlocked on lock resources with another process\n"
+            + "(?i)^\\W*error\\b.*\\blicen[cs]e\\b.*\\b(in use|already used|not available|unavailable|exceeded|maximum number)\\b";
+
+    // Defaults of earlier versions, stored as is by jobs saved with them, which then follow the current defaults
+    private static final String[] PREVIOUS_DEFAULT_TRANSIENT_PATTERNS = {
+        "(?i)\\block(ed)?\\b\n"
+            + "(?i)licen[cs]e.*(in use|unavailable|not available|exceeded|maximum)\n"
+            + "(?i)being used by another process\n"
+            + "(?i)file.*in use\n"
+            + "(?i)timed? ?out"
+    };
+
+    // Upper bound of the delay between two attempts
+    private static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     *
+     * @param outputFileName: Visual Expert command output file
+     * @param patterns: regular expressions of transient failures, one per line
+     * @return first output line matching a transient failure pattern, null if the failure is permanent
+     */
+    public static String FindTransientFailure(String outputFileName, String patterns) {
+
+        List<Pattern> transientPatterns = Compile(patterns);
+
+        if (transientPatterns.isEmpty()) {
+            return null;
+        }
+
+        try (Scanner outputScanner = new Scanner(new File(outputFileName), "UTF-8")) {
+
+            while (outputScanner.hasNextLine()) {
+
+                String line = outputScanner.nextLine();
+
+                for (Pattern pattern : transientPatterns) {
+                    if (pattern.matcher(line).find()) {
+                        return line;
+                    }
+                }
+            }
+
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to read Visual Expert command output " + outputFileName, e);
+        }
+
+        return null;
+    }
+
+    /**
+     *
+     * @param attempt: number of the retry, starting at 1
+     * @param baseDelaySeconds: delay before the first retry
+     * @return exponential delay bounded by {@link #MAX_RETRY_DELAY_MILLIS}, with random jitter between half and full delay
+     */
+    public static long GetRetryDelayMillis(int attempt, int baseDelaySeconds) {
+
+        long delay = TimeUnit.SECONDS.toMillis(Math.max(baseDelaySeconds, 1));
+
+        for (int i = 1; i < attempt && delay < MAX_RETRY_DELAY_MILLIS; i++) {
+            delay *= 2;
+        }
+
+        delay = Math.min(delay, MAX_RETRY_DELAY_MILLIS);
+
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     *
+     * @param patterns: regular expressions, one per line
+     * @return error message for the first invalid expression, null if all are valid
+     */
+    public static String Validate(String patterns) {
+
+        for (String pattern : Split(patterns)) {
+            try {
+                Pattern.compile(pattern);
+            } catch (PatternSyntaxException e) {
+                return e.getDescription() + ": " + pattern;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     *
+     * @param patterns: regular expressions, one per line
+     * @return true if the patterns are the current or a previous default table
+     */
+    public static boolean IsDefault(String patterns) {
+
+        List<String> split = Split(patterns);
+
+        if (split.equals(Split(DEFAULT_TRANSIENT_PATTERNS))) {
+            return true;
+        }
+
+        for (String previous : PREVIOUS_DEFAULT_TRANSIENT_PATTERNS) {
+            if (split.equals(Split(previous))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static List<Pattern> Compile(String patterns) {
+
+        List<Pattern> result = new ArrayList<Pattern>();
+
+        for (String pattern : Split(patterns)) {
+            try {
+                result.add(Pattern.compile(pattern));
+            } catch (PatternSyntaxException e) {
+                LOGGER.log(Level.WARNING, "Invalid transient error pattern ignored: " + pattern, e);
+            }
+        }
+
+        return result;
+    }
+
+    private static List<String> Split(String patterns) {
+
+        List<String> result = new ArrayList<String>();
+
+        if (Util.fixEmptyAndTrim(patterns) == null) {
+            return result;
+        }
+
+        for (String pattern : patterns.split("[\\r\\n]+")) {
+            pattern = Util.fixEmptyAndTrim(pattern);
+            if (pattern != null) {
+                result.add(pattern);
+            }
+        }
+
+        return result;
+    }
+}
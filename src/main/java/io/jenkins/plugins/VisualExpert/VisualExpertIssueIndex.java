@@ -0,0 +1,269 @@
+package io.jenkins.plugins.VisualExpert;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compact index of the code inspection issues of one build.
+ * Rule, file, severity and message values are stored once in string tables and
+ * every issue is a row of table positions, so filtering never compares strings.
+ */
+public final class VisualExpertIssueIndex {
+
+    // Index file format version, written first in the index file
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int RULE = 0;
+    private static final int FILE = 1;
+    private static final int SEVERITY = 2;
+    private static final int MESSAGE = 3;
+    private static final int LINE = 4;
+    private static final int ROW_SIZE = 5;
+
+    // Longer values are truncated so that they fit in a modified UTF-8 record
+    private static final int MAX_VALUE_LENGTH = 16000;
+
+    private final List<List<String>> tables = new ArrayList<List<String>>();
+    private final List<Map<String, Integer>> lookups = new ArrayList<Map<String, Integer>>();
+    private int[] rows = new int[ROW_SIZE * 64];
+    private int size;
+
+    // One issue read from the index
+    public static final class Issue {
+
+        private final String _rule;
+        private final String _file;
+        private final String _severity;
+        private final String _message;
+        private final int _line;
+
+        Issue(String rule, String file, String severity, String message, int line) {
+            this._rule = rule;
+            this._file = file;
+            this._severity = severity;
+            this._message = message;
+            this._line = line;
+        }
+
+        public String getRule() {
+            return _rule;
+        }
+
+        public String getFile() {
+            return _file;
+        }
+
+        public String getSeverity() {
+            return _severity;
+        }
+
+        public String getMessage() {
+            return _message;
+        }
+
+        public int getLine() {
+            return _line;
+        }
+    }
+
+    public VisualExpertIssueIndex() {
+        for (int i = RULE; i <= MESSAGE; i++) {
+            tables.add(new ArrayList<String>());
+            lookups.add(new HashMap<String, Integer>());
+        }
+    }
+
+    public void addIssue(String rule, String file, String severity, String message, int line) {
+
+        if (rows.length < (size + 1) * ROW_SIZE) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+        }
+
+        int offset = size * ROW_SIZE;
+        rows[offset + RULE] = intern(RULE, rule);
+        rows[offset + FILE] = intern(FILE, file);
+        rows[offset + SEVERITY] = intern(SEVERITY, severity);
+        rows[offset + MESSAGE] = intern(MESSAGE, message);
+        rows[offset + LINE] = line;
+        size++;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Map<String, Integer> getCountsByRule() {
+        return countBy(RULE);
+    }
+
+    public Map<String, Integer> getCountsByFile() {
+        return countBy(FILE);
+    }
+
+    public Map<String, Integer> getCountsBySeverity() {
+        return countBy(SEVERITY);
+    }
+
+    /**
+     *
+     * @param rule: rule name to keep, null for any rule
+     * @param file: file name to keep, null for any file
+     * @param severity: severity to keep, null for any severity
+     * @param limit: maximum number of issues returned
+     * @return issues matching all the given values
+     */
+    public List<Issue> filter(String rule, String file, String severity, int limit) {
+
+        List<Issue> issues = new ArrayList<Issue>();
+
+        int ruleId = find(RULE, rule);
+        int fileId = find(FILE, file);
+        int severityId = find(SEVERITY, severity);
+
+        // A value never seen in the report can not match any issue
+        if (ruleId == -2 || fileId == -2 || severityId == -2) {
+            return issues;
+        }
+
+        for (int i = 0; i < size && issues.size() < limit; i++) {
+            int offset = i * ROW_SIZE;
+            if ((ruleId < 0 || rows[offset + RULE] == ruleId)
+                    && (fileId < 0 || rows[offset + FILE] == fileId)
+                    && (severityId < 0 || rows[offset + SEVERITY] == severityId)) {
+                issues.add(new Issue(
+                        tables.get(RULE).get(rows[offset + RULE]),
+                        tables.get(FILE).get(rows[offset + FILE]),
+                        tables.get(SEVERITY).get(rows[offset + SEVERITY]),
+                        tables.get(MESSAGE).get(rows[offset + MESSAGE]),
+                        rows[offset + LINE]));
+            }
+        }
+
+        return issues;
+    }
+
+    public void write(File indexFile) throws IOException {
+
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile))))) {
+
+            writeVarInt(out, FORMAT_VERSION);
+
+            for (List<String> table : tables) {
+                writeVarInt(out, table.size());
+                for (String value : table) {
+                    out.writeUTF(value);
+                }
+            }
+
+            writeVarInt(out, size);
+            for (int i = 0; i < size * ROW_SIZE; i++) {
+                writeVarInt(out, rows[i]);
+            }
+        }
+    }
+
+    public static VisualExpertIssueIndex read(File indexFile) throws IOException {
+
+        VisualExpertIssueIndex index = new VisualExpertIssueIndex();
+
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(indexFile))))) {
+
+            int version = readVarInt(in);
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported Visual Expert issue index version " + version + " in " + indexFile);
+            }
+
+            for (int t = RULE; t <= MESSAGE; t++) {
+                int count = readVarInt(in);
+                for (int i = 0; i < count; i++) {
+                    index.intern(t, in.readUTF());
+                }
+            }
+
+            index.size = readVarInt(in);
+            index.rows = new int[Math.max(index.size, 1) * ROW_SIZE];
+            for (int i = 0; i < index.size * ROW_SIZE; i++) {
+                index.rows[i] = readVarInt(in);
+            }
+        }
+
+        return index;
+    }
+
+    private int intern(int table, String value) {
+
+        String key = value == null ? "" : value;
+        if (key.length() > MAX_VALUE_LENGTH) {
+            key = key.substring(0, MAX_VALUE_LENGTH);
+        }
+        Integer id = lookups.get(table).get(key);
+
+        if (id == null) {
+            id = tables.get(table).size();
+            tables.get(table).add(key);
+            lookups.get(table).put(key, id);
+        }
+
+        return id;
+    }
+
+    // Returns -1 for no filter, -2 for an unknown value
+    private int find(int table, String value) {
+
+        if (value == null || value.isEmpty()) {
+            return -1;
+        }
+
+        Integer id = lookups.get(table).get(value);
+        return id == null ? -2 : id;
+    }
+
+    private Map<String, Integer> countBy(int column) {
+
+        int[] counts = new int[tables.get(column).size()];
+        for (int i = 0; i < size; i++) {
+            counts[rows[i * ROW_SIZE + column]]++;
+        }
+
+        Map<String, Integer> result = new TreeMap<String, Integer>();
+        for (int id = 0; id < counts.length; id++) {
+            result.put(tables.get(column).get(id), counts[id]);
+        }
+
+        return result;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,164 @@
+package io.jenkins.plugins.VisualExpert;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads a Visual Expert JSON code inspection report (--ReportFormat JSON) token by token,
+ * so that the report is never loaded in memory, and fills a {@link VisualExpertIssueIndex}.
+ * Issues are the objects of an issue array (root array or issues / violations / findings / results / defects property).
+ * Properties of objects nested in an issue (location...) are folded into the issue, its own properties taking precedence.
+ * Objects outside issue arrays, like rule catalogues or summaries, are never read as issues.
+ */
+public class VisualExpertJsonReportReader {
+
+    private static final Set<String> ISSUE_ARRAY_KEYS = new HashSet<String>(Arrays.asList("issues", "violations", "findings", "results", "defects"));
+
+    private static final String[] RULE_KEYS = {"rule", "rulename", "ruleid"};
+    private static final String[] FILE_KEYS = {"file", "filename", "path", "objectname", "object"};
+    private static final String[] SEVERITY_KEYS = {"severity", "level", "priority"};
+    private static final String[] MESSAGE_KEYS = {"message", "description", "text"};
+    private static final String[] LINE_KEYS = {"line", "linenumber", "startline"};
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    // JSON object or array currently opened
+    private static final class Container {
+
+        private final boolean array;
+        private final String name;
+        private Container issue;
+        private final Map<String, String> ownProperties = new HashMap<String, String>();
+        private final Map<String, String> nestedProperties = new HashMap<String, String>();
+
+        Container(boolean array, String name) {
+            this.array = array;
+            this.name = name;
+        }
+    }
+
+    /**
+     *
+     * @param report: JSON report stream, closed by this method
+     * @return index of the issues found in the report
+     * @throws IOException if the report can not be read or is not valid JSON
+     */
+    public static VisualExpertIssueIndex Read(InputStream report) throws IOException {
+
+        VisualExpertIssueIndex index = new VisualExpertIssueIndex();
+
+        Deque<Container> containers = new ArrayDeque<Container>();
+
+        try (JsonParser parser = JSON_FACTORY.createParser(report)) {
+
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+
+                Container parent = containers.peek();
+
+                switch (token) {
+                    case START_ARRAY: {
+                        Container array = new Container(true, Lower(parser.getCurrentName()));
+                        array.issue = parent == null ? null : parent.issue;
+                        containers.push(array);
+                        break;
+                    }
+
+                    case START_OBJECT: {
+                        Container object = new Container(false, Lower(parser.getCurrentName()));
+                        if (parent != null && parent.issue == null && parent.array
+                                && (parent.name == null ? containers.size() == 1 : ISSUE_ARRAY_KEYS.contains(parent.name))) {
+                            object.issue = object;
+                        } else {
+                            object.issue = parent == null ? null : parent.issue;
+                        }
+                        containers.push(object);
+                        break;
+                    }
+
+                    case END_ARRAY:
+                        containers.pop();
+                        break;
+
+                    case END_OBJECT: {
+                        Container object = containers.pop();
+                        if (object.issue == object) {
+                            Map<String, String> properties = new HashMap<String, String>(object.nestedProperties);
+                            properties.putAll(object.ownProperties);
+                            AddIssue(index, properties);
+                        }
+                        break;
+                    }
+
+                    case VALUE_STRING:
+                    case VALUE_NUMBER_INT:
+                    case VALUE_NUMBER_FLOAT:
+                    case VALUE_TRUE:
+                    case VALUE_FALSE:
+                        if (parent != null && !parent.array && parent.issue != null) {
+                            String key = Lower(parser.getCurrentName());
+                            if (parent.issue == parent) {
+                                parent.ownProperties.put(key, parser.getText());
+                            } else if (!parent.issue.nestedProperties.containsKey(key)) {
+                                parent.issue.nestedProperties.put(key, parser.getText());
+                            }
+                        }
+                        break;
+
+                    default:
+                        break;
+                }
+            }
+        }
+
+        return index;
+    }
+
+    private static String Lower(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+
+    private static void AddIssue(VisualExpertIssueIndex index, Map<String, String> properties) {
+
+        String rule = Get(properties, RULE_KEYS);
+
+        if (rule == null) {
+            return;
+        }
+
+        int line = -1;
+        String lineValue = Get(properties, LINE_KEYS);
+        if (lineValue != null) {
+            try {
+                line = Integer.parseInt(lineValue.trim());
+            } catch (NumberFormatException e) {
+                line = -1;
+            }
+        }
+
+        index.addIssue(rule, Get(properties, FILE_KEYS), Get(properties, SEVERITY_KEYS), Get(properties, MESSAGE_KEYS), line);
+    }
+
+    private static String Get(Map<String, String> properties, String[] keys) {
+
+        for (String key : keys) {
+            String value = properties.get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,75 @@
+package io.jenkins.plugins.VisualExpert;
+
+import hudson.model.InvisibleAction;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Outcome of one Visual Expert build step: status, duration of each phase which ran, issue counts of the
+ * JSON code inspection report the step read, and phases of the
+ * project which were up to date at the end of the step, either because they succeeded or because the
+ * change filter proved no relevant source changed.
+ * Up to date phases are the baseline when collecting the changes a later build has to process,
+ * status, durations and issue counts are recorded in {@link VisualExpertResultsIndex} when the build completes.
+ */
+public class VisualExpertPhasesAction extends InvisibleAction {
+
+    public static final String STATUS_SUCCESS = "SUCCESS";
+    public static final String STATUS_FAILURE = "FAILURE";
+    public static final String STATUS_ABORTED = "ABORTED";
+    public static final String STATUS_SKIPPED = "SKIPPED";
+
+    private final String _projectName;
+    private final Set<String> _upToDatePhases;
+    private final String _status;
+    private final Map<String, Long> _phaseDurations;
+    private final Integer _issueCount;
+    private final Map<String, Integer> _severityCounts;
+
+    /**
+     *
+     * @param report: JSON code inspection report read by the step, null if the step read none
+     */
+    public VisualExpertPhasesAction(String projectName, Set<String> upToDatePhases, String status, Map<String, Long> phaseDurations, VisualExpertIssueIndex report) {
+        this._projectName = projectName;
+        this._upToDatePhases = new TreeSet<String>(upToDatePhases);
+        this._status = status;
+        this._phaseDurations = new LinkedHashMap<String, Long>(phaseDurations);
+        this._issueCount = report == null ? null : report.getSize();
+        this._severityCounts = report == null ? null : new TreeMap<String, Integer>(report.getCountsBySeverity());
+    }
+
+    public String getProjectName() {
+        return _projectName;
+    }
+
+    public Set<String> getUpToDatePhases() {
+        return Collections.unmodifiableSet(_upToDatePhases);
+    }
+
+    public String getStatus() {
+        return _status;
+    }
+
+    public Map<String, Long> getPhaseDurations() {
+        return _phaseDurations == null ? Collections.<String, Long>emptyMap() : Collections.unmodifiableMap(_phaseDurations);
+    }
+
+    // -1 when the step read no JSON code inspection report
+    public int getIssueCount() {
+        return _issueCount == null ? -1 : _issueCount;
+    }
+
+    // Null when the step read no JSON code inspection report
+    public Map<String, Integer> getSeverityCounts() {
+        return _severityCounts == null ? null : Collections.unmodifiableMap(_severityCounts);
+    }
+
+    public boolean isUpToDate(String projectName, String phase) {
+        return _projectName != null && _projectName.equals(projectName) && _upToDatePhases.contains(phase);
+    }
+}
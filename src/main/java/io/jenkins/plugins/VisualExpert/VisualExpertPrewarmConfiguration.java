@@ -0,0 +1,106 @@
+package io.jenkins.plugins.VisualExpert;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.util.FormValidation;
+import java.util.ArrayList;
+import java.util.List;
+import jenkins.model.GlobalConfiguration;
+import jenkins.model.Jenkins;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.verb.POST;
+
+/**
+ * Global settings of the background pre-warming of Visual Expert projects on idle agents.
+ */
+@Extension
+@Symbol("visualexpertprewarm")
+public class VisualExpertPrewarmConfiguration extends GlobalConfiguration {
+
+    // Minimum delay between two pre-warming rounds
+    public static final int DEFAULT_INTERVAL_MINUTES = 60;
+
+    private boolean _enabled;
+    private String _label;
+    private String _projects;
+    private int _intervalMinutes = DEFAULT_INTERVAL_MINUTES;
+
+    public VisualExpertPrewarmConfiguration() {
+        load();
+    }
+
+    public static VisualExpertPrewarmConfiguration get() {
+        return GlobalConfiguration.all().get(VisualExpertPrewarmConfiguration.class);
+    }
+
+    public boolean isEnabled() {
+        return _enabled;
+    }
+
+    @DataBoundSetter
+    public void setEnabled(boolean enabled) {
+        this._enabled = enabled;
+        save();
+    }
+
+    public String getLabel() {
+        return _label;
+    }
+
+    // Label expression of the agents allowed to run pre-warming analyses (empty means any agent)
+    @DataBoundSetter
+    public void setLabel(String label) {
+        this._label = Util.fixEmptyAndTrim(label);
+        save();
+    }
+
+    public String getProjects() {
+        return _projects;
+    }
+
+    // Visual Expert project names, one per line
+    @DataBoundSetter
+    public void setProjects(String projects) {
+        this._projects = Util.fixEmptyAndTrim(projects);
+        save();
+    }
+
+    public int getIntervalMinutes() {
+        return _intervalMinutes;
+    }
+
+    @DataBoundSetter
+    public void setIntervalMinutes(int intervalMinutes) {
+        this._intervalMinutes = intervalMinutes > 0 ? intervalMinutes : DEFAULT_INTERVAL_MINUTES;
+        save();
+    }
+
+    // Returns the configured Visual Expert project names
+    public List<String> getProjectList() {
+
+        List<String> projectList = new ArrayList<String>();
+
+        if (_projects == null) {
+            return projectList;
+        }
+
+        for (String project : _projects.split("[\\r\\n]+")) {
+            project = Util.fixEmptyAndTrim(project);
+            if (project != null) {
+                projectList.add(project);
+            }
+        }
+
+        return projectList;
+    }
+
+    @POST
+    public FormValidation doCheckIntervalMinutes(@QueryParameter String value) {
+
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+
+        return FormValidation.validatePositiveInteger(value);
+    }
+}
@@ -0,0 +1,285 @@
+package io.jenkins.plugins.VisualExpert;
+
+import hudson.Extension;
+import hudson.Launcher;
+import hudson.Proc;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Computer;
+import hudson.model.Label;
+import hudson.model.Node;
+import hudson.model.Queue;
+import hudson.model.TaskListener;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+
+/**
+ * Runs incremental analyses (-a) of the pre-warming projects on idle agents in background.
+ * An analysis yields (is killed) as soon as a build needs the agent executor, and a Visual Expert
+ * build step stops and waits for the analysis running on its agent before launching any command.
+ * Project state snapshots of pre-warmed projects are verified before use, see {@link #MayHaveChanged}.
+ */
+@Extension
+public class VisualExpertPrewarmWork extends AsyncPeriodicWork {
+
+    // Delay between two checks of the agent activity while a pre-warming analysis is running
+    private static final long POLL_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private static final Logger LOGGER = Logger.getLogger(VisualExpertPrewarmWork.class.getName());
+
+    // Pre-warming analysis of one node, registered before its console is launched
+    private static final class Prewarm {
+
+        // Counted down once the launch returned, whether it succeeded or not
+        private final CountDownLatch launched = new CountDownLatch(1);
+        private volatile Proc proc;
+    }
+
+    // Pre-warming analyses currently launching or running, keyed by node name
+    private static final Map<String, Prewarm> RUNNING = new HashMap<String, Prewarm>();
+
+    // Node and project pairs pre-warmed since the controller started
+    private static final Set<String> PREWARMED = ConcurrentHashMap.newKeySet();
+
+    private volatile long lastRoundMillis;
+
+    public VisualExpertPrewarmWork() {
+        super("Visual Expert pre-warming");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        // Configured interval is checked in execute, so that changing it does not need a restart
+        return MIN;
+    }
+
+    @Override
+    protected void execute(TaskListener listener) throws IOException, InterruptedException {
+
+        VisualExpertPrewarmConfiguration config = VisualExpertPrewarmConfiguration.get();
+
+        if (config == null || !config.isEnabled()) {
+            return;
+        }
+
+        List<String> projects = config.getProjectList();
+
+        if (projects.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastRoundMillis < TimeUnit.MINUTES.toMillis(config.getIntervalMinutes())) {
+            return;
+        }
+        lastRoundMillis = now;
+
+        Jenkins jenkins = Jenkins.get();
+        VisualExpertBuilder.Descriptor descriptor = jenkins.getDescriptorByType(VisualExpertBuilder.Descriptor.class);
+        VisualExpertInstallation[] installations = descriptor == null ? new VisualExpertInstallation[0] : descriptor.getInstallations();
+
+        if (installations.length == 0) {
+            listener.getLogger().println(Messages.VisualExpertBuilder_DescriptorImpl_errors_installPathNotSet());
+            return;
+        }
+
+        Label label = config.getLabel() == null ? null : jenkins.getLabel(config.getLabel());
+
+        for (String project : projects) {
+
+            Node node = findIdleNode(jenkins, label);
+
+            if (node == null) {
+                listener.getLogger().println("No idle agent available, pre-warming postponed to next round.");
+                return;
+            }
+
+            if (!prewarm(node, installations[0], project, listener)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     *
+     * @return true if the analysis has finished, false if it yielded to a build
+     */
+    private boolean prewarm(Node node, VisualExpertInstallation installation, String project, TaskListener listener) throws IOException, InterruptedException {
+
+        String installPath = installation.forNode(node, listener).getHome();
+        String veConsoleExe = VisualExpertBuilder.getConsoleExePath(installPath);
+
+        listener.getLogger().println("Pre-warming Visual Expert Project '" + project + "' on " + node.getDisplayName());
+
+        Launcher launcher = node.createLauncher(listener);
+        String nodeName = node.getNodeName();
+        Prewarm prewarm = new Prewarm();
+
+        // Checked and registered under the lock, so that a Visual Expert build step starting on the node either
+        // makes the agent busy before the check or finds the pre-warming analysis to stop in the registry.
+        // The console is launched outside the lock, a slow agent channel must not block build steps of other agents
+        synchronized (RUNNING) {
+
+            if (isNeeded(node)) {
+                listener.getLogger().println("Agent " + node.getDisplayName() + " is needed by a build, pre-warming of '" + project + "' postponed.");
+                return false;
+            }
+
+            RUNNING.put(nodeName, prewarm);
+        }
+
+        PREWARMED.add(getKey(nodeName, project));
+
+        try {
+
+            try {
+                prewarm.proc = launcher.launch().cmds(VisualExpertHelper.GetCommandLine(veConsoleExe + " " + " -a -p '" + project + "'")).stdout(listener).start();
+            } finally {
+                prewarm.launched.countDown();
+            }
+
+            Proc proc = prewarm.proc;
+
+            // Removed from the registry means stopped by a Visual Expert build step
+            while (proc.isAlive() && isRegistered(nodeName, prewarm)) {
+
+                if (isNeeded(node)) {
+                    synchronized (RUNNING) {
+                        RUNNING.remove(nodeName, prewarm);
+                    }
+                    stop(proc);
+                    listener.getLogger().println("Agent " + node.getDisplayName() + " is needed by a build, pre-warming of '" + project + "' stopped.");
+                    return false;
+                }
+
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            }
+
+            if (!isRegistered(nodeName, prewarm)) {
+                listener.getLogger().println("Pre-warming of '" + project + "' stopped by a Visual Expert build on " + node.getDisplayName());
+                return false;
+            }
+
+            listener.getLogger().println("Pre-warming of '" + project + "' finished with exit code " + proc.join());
+            return true;
+
+        } finally {
+            synchronized (RUNNING) {
+                RUNNING.remove(nodeName, prewarm);
+            }
+        }
+    }
+
+    /**
+     * Stops the pre-warming analysis running on the node, if any, and waits for the Visual Expert console to exit,
+     * so that the build step does not run against a project the pre-warming analysis still holds.
+     *
+     * @param nodeName: name of the node the build step runs on
+     */
+    public static void YieldTo(String nodeName, TaskListener listener) throws InterruptedException {
+
+        Prewarm prewarm;
+
+        synchronized (RUNNING) {
+            prewarm = RUNNING.remove(nodeName);
+        }
+
+        if (prewarm != null) {
+            listener.getLogger().println("Stopping Visual Expert pre-warming analysis running on this agent.");
+            // Console may still be launching, it is only known once the launch returned
+            prewarm.launched.await();
+            if (prewarm.proc != null) {
+                stop(prewarm.proc);
+            }
+        }
+    }
+
+    /**
+     * A pre-warming analysis killed or running on its own may leave the project state of the agent different
+     * from the snapshot it was restored from, so that state has to be verified before it is trusted.
+     *
+     * @param nodeName: name of the node the build step runs on
+     * @param projectName: Visual Expert project name
+     * @return true if a pre-warming analysis of the project ran on the node since the controller started,
+     * or the project is configured for pre-warming
+     */
+    public static boolean MayHaveChanged(String nodeName, String projectName) {
+
+        if (PREWARMED.contains(getKey(nodeName, projectName))) {
+            return true;
+        }
+
+        VisualExpertPrewarmConfiguration config = VisualExpertPrewarmConfiguration.get();
+
+        return config != null && config.isEnabled() && config.getProjectList().contains(projectName);
+    }
+
+    private static String getKey(String nodeName, String projectName) {
+        return nodeName + "\t" + projectName;
+    }
+
+    private static boolean isRegistered(String nodeName, Prewarm prewarm) {
+        synchronized (RUNNING) {
+            return RUNNING.get(nodeName) == prewarm;
+        }
+    }
+
+    // Kills the Visual Expert console and waits for it to exit
+    private static void stop(Proc proc) throws InterruptedException {
+        try {
+            proc.kill();
+            proc.join();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Pre-warming analysis did not exit cleanly", e);
+        }
+    }
+
+    private static Node findIdleNode(Jenkins jenkins, Label label) {
+
+        for (Computer computer : jenkins.getComputers()) {
+
+            Node node = computer.getNode();
+
+            // Visual Expert console is never started on the controller
+            if (node == null || node instanceof Jenkins || !computer.isOnline() || computer.getNumExecutors() == 0) {
+                continue;
+            }
+
+            if (label != null && !label.contains(node)) {
+                continue;
+            }
+
+            if (!isNeeded(node)) {
+                return node;
+            }
+        }
+
+        return null;
+    }
+
+    // An agent is needed when one of its executors is busy or a queued build could run on it
+    private static boolean isNeeded(Node node) {
+
+        Computer computer = node.toComputer();
+
+        if (computer == null || !computer.isOnline() || computer.countBusy() > 0) {
+            return true;
+        }
+
+        for (Queue.BuildableItem item : Queue.getInstance().getBuildableItems()) {
+            if (node.canTake(item) == null) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,121 @@
+package io.jenkins.plugins.VisualExpert;
+
+import hudson.Util;
+import hudson.model.Run;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.RunAction2;
+
+/**
+ * Code inspection results of a build, read from a JSON report.
+ * Only the issue counts are saved with the build, the issues themselves are kept in a compact
+ * index file in the build folder which is loaded on demand.
+ */
+public class VisualExpertReportAction implements RunAction2 {
+
+    private static final Logger LOGGER = Logger.getLogger(VisualExpertReportAction.class.getName());
+
+    // Index file name in the build folder
+    public static final String INDEX_FILE_NAME = "visualexpert-issues.idx";
+
+    // Maximum number of issues rendered in one page
+    public static final int MAX_DISPLAYED_ISSUES = 1000;
+
+    private final int _issueCount;
+    private final Map<String, Integer> _severityCounts;
+
+    private transient Run<?, ?> run;
+    private transient SoftReference<VisualExpertIssueIndex> index;
+
+    public VisualExpertReportAction(VisualExpertIssueIndex index) {
+        this._issueCount = index.getSize();
+        this._severityCounts = new TreeMap<String, Integer>(index.getCountsBySeverity());
+        this.index = new SoftReference<VisualExpertIssueIndex>(index);
+    }
+
+    @Override
+    public void onAttached(Run<?, ?> r) {
+        this.run = r;
+    }
+
+    @Override
+    public void onLoad(Run<?, ?> r) {
+        this.run = r;
+    }
+
+    public Run<?, ?> getRun() {
+        return run;
+    }
+
+    @Override
+    public String getIconFileName() {
+        return "document.png";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Visual Expert Issues";
+    }
+
+    @Override
+    public String getUrlName() {
+        return "visualexpert";
+    }
+
+    public int getIssueCount() {
+        return _issueCount;
+    }
+
+    public Map<String, Integer> getSeverityCounts() {
+        return Collections.unmodifiableMap(_severityCounts);
+    }
+
+    public Map<String, Integer> getRuleCounts() {
+        VisualExpertIssueIndex issues = getIndex();
+        return issues == null ? Collections.<String, Integer>emptyMap() : issues.getCountsByRule();
+    }
+
+    public Map<String, Integer> getFileCounts() {
+        VisualExpertIssueIndex issues = getIndex();
+        return issues == null ? Collections.<String, Integer>emptyMap() : issues.getCountsByFile();
+    }
+
+    // Issues of the build matching the given rule, file and severity (empty values match everything)
+    public List<VisualExpertIssueIndex.Issue> getIssues(String rule, String file, String severity) {
+        VisualExpertIssueIndex issues = getIndex();
+        if (issues == null) {
+            return Collections.emptyList();
+        }
+        return issues.filter(Util.fixEmpty(rule), Util.fixEmpty(file), Util.fixEmpty(severity), MAX_DISPLAYED_ISSUES);
+    }
+
+    public static File GetIndexFile(Run<?, ?> run) {
+        return new File(run.getRootDir(), INDEX_FILE_NAME);
+    }
+
+    private synchronized VisualExpertIssueIndex getIndex() {
+
+        VisualExpertIssueIndex issues = index == null ? null : index.get();
+
+        if (issues == null && run != null) {
+            File indexFile = GetIndexFile(run);
+            if (indexFile.exists()) {
+                try {
+                    issues = VisualExpertIssueIndex.read(indexFile);
+                    index = new SoftReference<VisualExpertIssueIndex>(issues);
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Failed to read Visual Expert issue index " + indexFile, e);
+                }
+            }
+        }
+
+        return issues;
+    }
+}
@@ -0,0 +1,327 @@
+package io.jenkins.plugins.VisualExpert;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import hudson.util.XStream2;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+
+/**
+ * Controller wide index of the Visual Expert results of every job.
+ * Updated when a build with a Visual Expert build step completes, kept in memory once loaded and
+ * saved in JENKINS_HOME with one small file per job and project, so that the dashboard never has to read
+ * build folders and a build completion only rewrites the file of its own project.
+ * Entries are immutable and replaced on update, so reads never lock nor wait for a file write.
+ */
+public final class VisualExpertResultsIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(VisualExpertResultsIndex.class.getName());
+
+    // Index folder name in JENKINS_HOME
+    private static final String INDEX_FOLDER_NAME = "visualexpert-results";
+
+    // Number of builds kept per project for trends
+    public static final int MAX_TREND_BUILDS = 20;
+
+    private static final XStream2 XSTREAM = new XStream2();
+
+    static {
+        XSTREAM.alias("project", ProjectEntry.class);
+        XSTREAM.alias("build", BuildEntry.class);
+    }
+
+    private static volatile VisualExpertResultsIndex instance;
+
+    // Keyed by job full name and Visual Expert project name, values are replaced, never modified
+    private final Map<String, ProjectEntry> projects = new ConcurrentSkipListMap<String, ProjectEntry>();
+
+    // Serializes read-modify-replace of entries, held only for in-memory updates
+    private final Object updateLock = new Object();
+
+    // Serializes file writes, held while writing but never by readers
+    private final Object saveLock = new Object();
+
+    // Latest results of one Visual Expert project in one job
+    public static final class ProjectEntry {
+
+        private final String job;
+        private final String projectName;
+        private final List<BuildEntry> builds;
+
+        ProjectEntry(String job, String projectName, List<BuildEntry> builds) {
+            this.job = job;
+            this.projectName = projectName;
+            this.builds = new ArrayList<BuildEntry>(builds);
+        }
+
+        public String getJob() {
+            return job;
+        }
+
+        public String getProjectName() {
+            return projectName;
+        }
+
+        public BuildEntry getLatest() {
+            return builds.isEmpty() ? null : builds.get(0);
+        }
+
+        // Latest build first
+        public List<BuildEntry> getBuilds() {
+            return Collections.unmodifiableList(builds);
+        }
+
+        // Returns a new entry with the build added first
+        ProjectEntry with(BuildEntry build) {
+            List<BuildEntry> updated = new ArrayList<BuildEntry>(MAX_TREND_BUILDS);
+            updated.add(build);
+            for (BuildEntry previous : builds) {
+                if (updated.size() >= MAX_TREND_BUILDS) {
+                    break;
+                }
+                if (previous.number != build.number) {
+                    updated.add(previous);
+                }
+            }
+            return new ProjectEntry(job, projectName, updated);
+        }
+
+        ProjectEntry movedTo(String newJob) {
+            return new ProjectEntry(newJob, projectName, builds);
+        }
+    }
+
+    // Result of the Visual Expert build step in one build
+    public static final class BuildEntry {
+
+        private final int number;
+        private final long timestamp;
+        private final String status;
+        private final int issueCount;
+        private final Map<String, Long> phaseDurations;
+        private final Map<String, Integer> severityCounts;
+
+        BuildEntry(int number, long timestamp, String status, int issueCount, Map<String, Long> phaseDurations, Map<String, Integer> severityCounts) {
+            this.number = number;
+            this.timestamp = timestamp;
+            this.status = status;
+            this.issueCount = issueCount;
+            this.phaseDurations = phaseDurations;
+            this.severityCounts = severityCounts;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        // -1 when no JSON code inspection report was read
+        public int getIssueCount() {
+            return issueCount;
+        }
+
+        public Map<String, Long> getPhaseDurations() {
+            return phaseDurations == null ? Collections.<String, Long>emptyMap() : Collections.unmodifiableMap(phaseDurations);
+        }
+
+        public Map<String, Integer> getSeverityCounts() {
+            return severityCounts == null ? Collections.<String, Integer>emptyMap() : Collections.unmodifiableMap(severityCounts);
+        }
+    }
+
+    private VisualExpertResultsIndex() {
+    }
+
+    // Returns the index, loading it from JENKINS_HOME on first use
+    public static VisualExpertResultsIndex get() {
+
+        VisualExpertResultsIndex result = instance;
+
+        if (result == null) {
+            synchronized (VisualExpertResultsIndex.class) {
+                result = instance;
+                if (result == null) {
+                    instance = result = load();
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Records the Visual Expert build steps of a completed build.
+     *
+     * @param run: completed build
+     * @param steps: outcome of each Visual Expert build step of the build
+     */
+    public void record(Run<?, ?> run, List<VisualExpertPhasesAction> steps) {
+
+        String job = run.getParent().getFullName();
+        List<String> keys = new ArrayList<String>();
+
+        for (VisualExpertPhasesAction step : steps) {
+
+            // Issue counts are the ones of the report read by this step, never of another step of the build
+            Map<String, Integer> severityCounts = step.getSeverityCounts();
+            BuildEntry entry = new BuildEntry(run.getNumber(), run.getStartTimeInMillis(), step.getStatus(), step.getIssueCount(),
+                    new LinkedHashMap<String, Long>(step.getPhaseDurations()), severityCounts == null ? null : new TreeMap<String, Integer>(severityCounts));
+
+            String key = getKey(job, step.getProjectName());
+
+            synchronized (updateLock) {
+                ProjectEntry project = projects.get(key);
+                if (project == null) {
+                    project = new ProjectEntry(job, step.getProjectName(), Collections.<BuildEntry>emptyList());
+                }
+                projects.put(key, project.with(entry));
+            }
+
+            keys.add(key);
+        }
+
+        save(keys);
+    }
+
+    // Snapshot of all project entries, sorted by job and project name
+    public List<ProjectEntry> getProjects() {
+        return new ArrayList<ProjectEntry>(projects.values());
+    }
+
+    // Moves (newJob set) or removes (newJob null) the entries of a job and of the jobs it contains
+    private void rename(String oldJob, String newJob) {
+
+        List<String> keys = new ArrayList<String>();
+
+        synchronized (updateLock) {
+            for (ProjectEntry project : new ArrayList<ProjectEntry>(projects.values())) {
+                if (project.job.equals(oldJob) || project.job.startsWith(oldJob + "/")) {
+                    String oldKey = getKey(project.job, project.projectName);
+                    projects.remove(oldKey);
+                    keys.add(oldKey);
+                    if (newJob != null) {
+                        ProjectEntry moved = project.movedTo(newJob + project.job.substring(oldJob.length()));
+                        String newKey = getKey(moved.job, moved.projectName);
+                        projects.put(newKey, moved);
+                        keys.add(newKey);
+                    }
+                }
+            }
+        }
+
+        save(keys);
+    }
+
+    private static String getKey(String job, String projectName) {
+        return job + "\t" + projectName;
+    }
+
+    private static File getIndexFolder() {
+        return new File(Jenkins.get().getRootDir(), INDEX_FOLDER_NAME);
+    }
+
+    // File name does not depend on characters allowed in job and project names
+    private static XmlFile getProjectFile(String key) {
+        return new XmlFile(XSTREAM, new File(getIndexFolder(), Util.getDigestOf(key) + ".xml"));
+    }
+
+    private static VisualExpertResultsIndex load() {
+
+        VisualExpertResultsIndex index = new VisualExpertResultsIndex();
+        File[] files = getIndexFolder().listFiles((dir, name) -> name.endsWith(".xml"));
+
+        if (files == null) {
+            return index;
+        }
+
+        for (File file : files) {
+            XmlFile xmlFile = new XmlFile(XSTREAM, file);
+            try {
+                ProjectEntry project = (ProjectEntry) xmlFile.read();
+                index.projects.put(getKey(project.job, project.projectName), project);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to load Visual Expert results index file " + file, e);
+            }
+        }
+
+        return index;
+    }
+
+    // Writes the current entry of each key, so that concurrent saves always leave the latest state on disk
+    private void save(List<String> keys) {
+
+        synchronized (saveLock) {
+            for (String key : keys) {
+                XmlFile file = getProjectFile(key);
+                ProjectEntry project = projects.get(key);
+                try {
+                    if (project == null) {
+                        Files.deleteIfExists(file.getFile().toPath());
+                    } else {
+                        file.write(project);
+                    }
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Failed to save Visual Expert results index file " + file, e);
+                }
+            }
+        }
+    }
+
+    // Records the Visual Expert build steps when a build completes, whatever its result
+    @Extension
+    public static final class RunCompletionListener extends RunListener<Run<?, ?>> {
+
+        @Override
+        public void onCompleted(Run<?, ?> run, TaskListener listener) {
+
+            List<VisualExpertPhasesAction> steps = run.getActions(VisualExpertPhasesAction.class);
+
+            if (!steps.isEmpty()) {
+                get().record(run, steps);
+            }
+        }
+    }
+
+    // Keeps the index in line with job renames, moves and deletions
+    @Extension
+    public static final class JobListener extends ItemListener {
+
+        @Override
+        public void onDeleted(Item item) {
+            if (instance != null || getIndexFolder().exists()) {
+                get().rename(item.getFullName(), null);
+            }
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            if (instance != null || getIndexFolder().exists()) {
+                get().rename(oldFullName, newFullName);
+            }
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package io.jenkins.plugins.VisualExpert;
+
+import hudson.FilePath;
+import hudson.Util;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.util.DirScanner;
+import hudson.util.io.ArchiverFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import jenkins.MasterToSlaveFileCallable;
+import jenkins.model.Jenkins;
+
+/**
+ * Content addressed store of Visual Expert project analysis states.
+ * A state folder of an agent is saved as a gzipped tar named after the SHA-256 of its content
+ * (blobs folder), and each Visual Expert project points to its latest state (refs folder).
+ * The store is a folder of the controller, by default JENKINS_HOME/visualexpert-snapshots,
+ * which can also be a mounted shared or cache folder.
+ */
+public class VisualExpertSnapshotStore {
+
+    private static final Logger LOGGER = Logger.getLogger(VisualExpertSnapshotStore.class.getName());
+
+    // Default store folder name in JENKINS_HOME
+    private static final String DEFAULT_STORE_FOLDER = "visualexpert-snapshots";
+
+    // File written in a state folder with the digest of the snapshot it was restored from or saved to
+    public static final String MARKER_FILE_NAME = ".visualexpert-snapshot";
+
+    // Lower case hexadecimal SHA-256, the only form of blob names and references
+    private static final Pattern DIGEST_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    // Serializes reference and blob updates of all stores of the controller
+    private static final Object LOCK = new Object();
+
+    private final File blobsDir;
+    private final File refsDir;
+
+    /**
+     *
+     * @param storePath: store folder of the controller, empty for the default store in JENKINS_HOME
+     */
+    public VisualExpertSnapshotStore(String storePath) {
+        File root = Util.fixEmptyAndTrim(storePath) == null
+                ? new File(Jenkins.get().getRootDir(), DEFAULT_STORE_FOLDER)
+                : new File(storePath.trim());
+        this.blobsDir = new File(root, "blobs");
+        this.refsDir = new File(root, "refs");
+    }
+
+    /**
+     * Restores the latest snapshot of the project in the state folder, unless the folder already holds it.
+     * The marker is removed in any case, as the analysis is about to change the folder: it is only written back
+     * by {@link #save} after a successful analysis, so that a failed analysis forces the next restore.
+     *
+     * @param verifyState: true to check the folder content against the marker, when something else than
+     * the build steps (a pre-warming analysis) may have changed the folder since the marker was written
+     * @return true if a snapshot was extracted
+     */
+    public boolean restore(String projectName, FilePath stateDir, boolean verifyState, TaskListener listener) throws IOException, InterruptedException {
+
+        FilePath marker = stateDir.child(MARKER_FILE_NAME);
+        String currentDigest = null;
+        if (marker.exists()) {
+            currentDigest = marker.readToString().trim();
+            marker.delete();
+            if (verifyState && !currentDigest.equals(stateDir.act(new StateDigest()))) {
+                listener.getLogger().println("Visual Expert project state changed since snapshot " + currentDigest + " was restored or saved.");
+                currentDigest = null;
+            }
+        }
+
+        String digest;
+        long blobLength;
+        InputStream in;
+
+        // Blob is opened before a concurrent save of the project can drop it from the store
+        synchronized (LOCK) {
+
+            digest = readRef(getRef(projectName));
+
+            if (digest == null) {
+                listener.getLogger().println("No Visual Expert project state snapshot for '" + projectName + "', analysis starts from the agent state.");
+                return false;
+            }
+
+            if (digest.equals(currentDigest)) {
+                listener.getLogger().println("Visual Expert project state is already up to date with snapshot " + digest);
+                return false;
+            }
+
+            File blob = getBlob(digest);
+            if (!blob.exists()) {
+                listener.getLogger().println("Visual Expert project state snapshot " + digest + " is missing from the store.");
+                return false;
+            }
+
+            blobLength = blob.length();
+            in = Files.newInputStream(blob.toPath());
+        }
+
+        try (InputStream blobStream = in) {
+            // Files of the previous state that are not in the snapshot must not be analyzed as part of it
+            if (stateDir.exists()) {
+                stateDir.deleteContents();
+            }
+            stateDir.mkdirs();
+            stateDir.untarFrom(blobStream, FilePath.TarCompression.GZIP);
+        } catch (IOException e) {
+            // A partially extracted state is worse than none, the analysis then starts from scratch
+            if (stateDir.exists()) {
+                stateDir.deleteContents();
+            }
+            throw e;
+        }
+
+        listener.getLogger().println("Visual Expert project state restored from snapshot " + digest + " (" + blobLength + " bytes)");
+        return true;
+    }
+
+    /**
+     * Saves the state folder as the latest snapshot of the project. Content already in the store is not transferred again.
+     *
+     * @return digest of the saved state
+     */
+    public String save(String projectName, FilePath stateDir, TaskListener listener) throws IOException, InterruptedException {
+
+        String digest = stateDir.act(new StateDigest());
+
+        // Digest is computed by the agent, it must never name a file outside the store
+        if (!IsDigest(digest)) {
+            throw new IOException("Invalid Visual Expert project state digest returned by the agent: " + digest);
+        }
+
+        File blob = getBlob(digest);
+        boolean stored;
+
+        // Reference is updated under the lock checking the blob, so that a concurrent save of another project can not drop it in between
+        synchronized (LOCK) {
+            stored = blob.exists();
+            if (stored) {
+                writeRef(projectName, digest);
+            }
+        }
+
+        if (stored) {
+            listener.getLogger().println("Visual Expert project state snapshot " + digest + " is already stored.");
+        } else {
+            Files.createDirectories(blobsDir.toPath());
+            Path temp = Files.createTempFile(blobsDir.toPath(), digest, ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    stateDir.archive(ArchiverFactory.TARGZ, out, new DirScanner.Glob("**", MARKER_FILE_NAME));
+                }
+                synchronized (LOCK) {
+                    Files.move(temp, blob.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    writeRef(projectName, digest);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            listener.getLogger().println("Visual Expert project state saved to snapshot " + digest + " (" + blob.length() + " bytes)");
+        }
+
+        stateDir.child(MARKER_FILE_NAME).write(digest, "UTF-8");
+
+        return digest;
+    }
+
+    private File getBlob(String digest) {
+        return new File(blobsDir, digest + ".tgz");
+    }
+
+    // Reference file name does not depend on characters allowed in project names
+    private File getRef(String projectName) {
+        return new File(refsDir, Util.getDigestOf(projectName));
+    }
+
+    // Called with LOCK held, a reference which is not a digest is ignored
+    private static String readRef(File ref) throws IOException {
+
+        if (!ref.exists()) {
+            return null;
+        }
+
+        String digest = Util.fixEmptyAndTrim(new String(Files.readAllBytes(ref.toPath()), StandardCharsets.UTF_8));
+
+        return IsDigest(digest) ? digest : null;
+    }
+
+    // Called with LOCK held
+    private void writeRef(String projectName, String digest) throws IOException {
+
+        File ref = getRef(projectName);
+        String previous = readRef(ref);
+
+        Files.createDirectories(refsDir.toPath());
+        Path temp = Files.createTempFile(refsDir.toPath(), ref.getName(), ".tmp");
+        Files.write(temp, digest.getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, ref.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // Previous state is dropped once no project points to it anymore
+        if (previous != null && !previous.equals(digest) && !isReferenced(previous)) {
+            try {
+                Files.deleteIfExists(getBlob(previous).toPath());
+            } catch (IOException e) {
+                // Still read by a restore on platforms that do not delete open files, saved state is not affected
+                LOGGER.log(Level.WARNING, "Failed to delete unreferenced Visual Expert project state snapshot " + previous, e);
+            }
+        }
+    }
+
+    private boolean isReferenced(String digest) throws IOException {
+
+        File[] refs = refsDir.listFiles();
+
+        if (refs == null) {
+            return false;
+        }
+
+        for (File ref : refs) {
+            if (ref.isFile() && digest.equals(readRef(ref))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // Computes on the agent the digest of the state folder
+    private static final class StateDigest extends MasterToSlaveFileCallable<String> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String invoke(File dir, VirtualChannel channel) throws IOException {
+            return Digest(dir);
+        }
+    }
+
+    /**
+     * Each file is hashed as its relative path, a zero byte, its length on 8 bytes and its content,
+     * so that no two different folders (one file holding zero bytes and two files...) share a digest.
+     *
+     * @param dir: state folder
+     * @return SHA-256 of the relative paths and contents of the state folder files, marker excluded
+     */
+    static String Digest(File dir) throws IOException {
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        Path root = dir.toPath();
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(p -> !p.getFileName().toString().equals(MARKER_FILE_NAME))
+                    .sorted((a, b) -> RelativePath(root, a).compareTo(RelativePath(root, b)))
+                    .collect(Collectors.toList());
+        }
+
+        byte[] buffer = new byte[64 * 1024];
+        for (Path file : files) {
+
+            long length = Files.size(file);
+            digest.update(RelativePath(root, file).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(ByteBuffer.allocate(Long.BYTES).putLong(length).array());
+
+            long hashed = 0;
+            try (InputStream in = Files.newInputStream(file)) {
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    digest.update(buffer, 0, read);
+                    hashed += read;
+                }
+            }
+
+            if (hashed != length) {
+                throw new IOException("Visual Expert project state file changed while computing its digest: " + file);
+            }
+        }
+
+        return Util.toHexString(digest.digest());
+    }
+
+    static boolean IsDigest(String digest) {
+        return digest != null && DIGEST_PATTERN.matcher(digest).matches();
+    }
+
+    private static String RelativePath(Path root, Path file) {
+        return root.relativize(file).toString().replace('\\', '/');
+    }
+}
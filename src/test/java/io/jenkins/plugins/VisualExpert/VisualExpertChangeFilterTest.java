@@ -0,0 +1,72 @@
+package io.jenkins.plugins.VisualExpert;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public class VisualExpertChangeFilterTest {
+
+    @Test
+    public void runsWithoutFilter() {
+
+        VisualExpertChangeFilter.Decision decision = VisualExpertChangeFilter.Evaluate(Arrays.asList("docs/readme.md"), null, " ");
+
+        assertTrue(decision.isRun());
+        assertEquals("no change filter configured", decision.getReason());
+    }
+
+    @Test
+    public void runsWhenChangesAreUnknownOrEmpty() {
+
+        assertTrue(VisualExpertChangeFilter.Evaluate(null, "src/**", null).isRun());
+        assertTrue(VisualExpertChangeFilter.Evaluate(Collections.<String>emptyList(), "src/**", null).isRun());
+    }
+
+    @Test
+    public void runsOnlyWhenAnIncludedPathChanged() {
+
+        assertTrue(VisualExpertChangeFilter.Evaluate(Arrays.asList("docs/readme.md", "src/db/proc.sql"), "src/**", null).isRun());
+        assertFalse(VisualExpertChangeFilter.Evaluate(Arrays.asList("docs/readme.md"), "src/**", null).isRun());
+    }
+
+    @Test
+    public void skipsWhenEveryChangedPathIsExcluded() {
+
+        assertFalse(VisualExpertChangeFilter.Evaluate(Arrays.asList("docs/readme.md", "docs/img/a.png"), null, "docs/**").isRun());
+        assertTrue(VisualExpertChangeFilter.Evaluate(Arrays.asList("docs/readme.md", "pom.xml"), null, "docs/**").isRun());
+        assertFalse(VisualExpertChangeFilter.Evaluate(Arrays.asList("src/test/a.sql"), "src/**", "src/test/**").isRun());
+    }
+
+    @Test
+    public void splitsPatternsOnCommasAndNewLines() {
+
+        assertTrue(VisualExpertChangeFilter.Evaluate(Arrays.asList("forms/main.pbl"), "src/**, db/**\nforms/**", null).isRun());
+        assertTrue(VisualExpertChangeFilter.Evaluate(Arrays.asList("db/a.sql"), "src/**,\r\ndb/**", null).isRun());
+        assertFalse(VisualExpertChangeFilter.Evaluate(Arrays.asList("lib/a.dll"), "src/**, db/**\nforms/**", null).isRun());
+    }
+
+    @Test
+    public void matchesBothSeparators() {
+
+        assertTrue(VisualExpertChangeFilter.Evaluate(Arrays.asList("src\\db\\proc.sql"), "src/**", null).isRun());
+        assertTrue(VisualExpertChangeFilter.Evaluate(Arrays.asList("src/db/proc.sql"), "src\\**", null).isRun());
+    }
+
+    @Test
+    public void trailingSeparatorMatchesEverythingBelow() {
+
+        assertTrue(VisualExpertChangeFilter.Evaluate(Arrays.asList("src/db/proc.sql"), "src/", null).isRun());
+        assertFalse(VisualExpertChangeFilter.Evaluate(Arrays.asList("src/db/proc.sql"), null, "src/").isRun());
+        assertFalse(VisualExpertChangeFilter.Evaluate(Arrays.asList("srcold/proc.sql"), "src/", null).isRun());
+    }
+
+    @Test
+    public void matchesIgnoringCase() {
+
+        assertTrue(VisualExpertChangeFilter.Evaluate(Arrays.asList("SRC/Proc.SQL"), "src/**/*.sql", null).isRun());
+    }
+}
@@ -0,0 +1,139 @@
+package io.jenkins.plugins.VisualExpert;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class VisualExpertFailureClassifierTest {
+
+    private static final String DEFAULTS = VisualExpertFailureClassifier.DEFAULT_TRANSIENT_PATTERNS;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String output(String... lines) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        return file.getPath();
+    }
+
+    @Test
+    public void findsFileInUse() throws IOException {
+
+        String line = "System.IO.IOException: The process cannot access the file 'C:\\VE\\repo.mdf' because it is being used by another process.";
+
+        assertEquals(line, VisualExpertFailureClassifier.FindTransientFailure(output("Analyzing project 'Sales'", line), DEFAULTS));
+    }
+
+    @Test
+    public void findsLockedRepository() throws IOException {
+
+        assertNotNull(VisualExpertFailureClassifier.FindTransientFailure(output("Msg 1222: Lock request time out period exceeded."), DEFAULTS));
+        assertNotNull(VisualExpertFailureClassifier.FindTransientFailure(output(
+                "Transaction (Process ID 52) was deadlocked on lock resources with another process and has been chosen as the deadlock victim."), DEFAULTS));
+    }
+
+    @Test
+    public void findsLicenseContention() throws IOException {
+
+        assertNotNull(VisualExpertFailureClassifier.FindTransientFailure(output("ERROR: License is already used by another user"), DEFAULTS));
+        assertNotNull(VisualExpertFailureClassifier.FindTransientFailure(output("[Error] Maximum number of licence users exceeded"), DEFAULTS));
+    }
+
+    @Test
+    public void ignoresInformationalAndPermanentLines() throws IOException {
+
+        assertNull(VisualExpertFailureClassifier.FindTransientFailure(output(
+                "Checking locked objects...",
+                "Block 12 analyzed",
+                "License: Enterprise edition, valid until 2030 (not available offline features disabled)",
+                "File in use check skipped",
+                "Analysis timed out after 3600 seconds",
+                "Writing lifetime output statistics",
+                "Error: project 'Sales' does not exist"), DEFAULTS));
+    }
+
+    @Test
+    public void usesCustomPatternsAndSkipsInvalidOnes() throws IOException {
+
+        String path = output("Repository busy, try again");
+
+        assertEquals("Repository busy, try again", VisualExpertFailureClassifier.FindTransientFailure(path, "(unclosed\n(?i)busy"));
+        assertNull(VisualExpertFailureClassifier.FindTransientFailure(path, "  \n"));
+    }
+
+    @Test
+    public void missingOutputIsPermanent() {
+
+        assertNull(VisualExpertFailureClassifier.FindTransientFailure(new File(folder.getRoot(), "missing.log").getPath(), DEFAULTS));
+    }
+
+    @Test
+    public void validatesPatterns() {
+
+        assertNull(VisualExpertFailureClassifier.Validate(DEFAULTS));
+        assertNotNull(VisualExpertFailureClassifier.Validate("ok\n(unclosed"));
+    }
+
+    @Test
+    public void recognizesDefaultTables() {
+
+        assertTrue(VisualExpertFailureClassifier.IsDefault(DEFAULTS.replace("\n", "\r\n")));
+        assertTrue(VisualExpertFailureClassifier.IsDefault("(?i)\\block(ed)?\\b\n(?i)licen[cs]e.*(in use|unavailable|not available|exceeded|maximum)\n"
+                + "(?i)being used by another process\n(?i)file.*in use\n(?i)timed? ?out\n"));
+        assertFalse(VisualExpertFailureClassifier.IsDefault("(?i)busy"));
+    }
+
+    @Test
+    public void retryDelayDoublesWithinJitterBounds() {
+
+        for (int i = 0; i < 100; i++) {
+            assertBetween(15000, 30000, VisualExpertFailureClassifier.GetRetryDelayMillis(1, 30));
+            assertBetween(30000, 60000, VisualExpertFailureClassifier.GetRetryDelayMillis(2, 30));
+            assertBetween(60000, 120000, VisualExpertFailureClassifier.GetRetryDelayMillis(3, 30));
+        }
+    }
+
+    @Test
+    public void retryDelayIsBounded() {
+
+        long max = TimeUnit.MINUTES.toMillis(10);
+
+        for (int i = 0; i < 100; i++) {
+            assertBetween(max / 2, max, VisualExpertFailureClassifier.GetRetryDelayMillis(50, 30));
+            assertBetween(max / 2, max, VisualExpertFailureClassifier.GetRetryDelayMillis(1, Integer.MAX_VALUE));
+            assertBetween(500, 1000, VisualExpertFailureClassifier.GetRetryDelayMillis(1, 0));
+        }
+    }
+
+    @Test
+    public void retryDelayIsJittered() {
+
+        Set<Long> delays = new HashSet<Long>();
+
+        for (int i = 0; i < 20; i++) {
+            delays.add(VisualExpertFailureClassifier.GetRetryDelayMillis(1, 30));
+        }
+
+        assertTrue(delays.size() > 1);
+    }
+
+    private static void assertBetween(long min, long max, long value) {
+        assertTrue(value + " < " + min, value >= min);
+        assertTrue(value + " > " + max, value <= max);
+    }
+}
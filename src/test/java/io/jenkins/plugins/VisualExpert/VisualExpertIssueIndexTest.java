@@ -0,0 +1,89 @@
+package io.jenkins.plugins.VisualExpert;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class VisualExpertIssueIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writeAndReadKeepIssues() throws Exception {
+
+        VisualExpertIssueIndex index = new VisualExpertIssueIndex();
+        for (int i = 0; i < 200; i++) {
+            index.addIssue("R" + (i % 3), "file" + (i % 7) + ".sql", i % 2 == 0 ? "High" : "Low", "message " + (i % 5), i);
+        }
+        index.addIssue("R0", null, "High", null, -1);
+        index.addIssue("R0", "big.sql", "High", "m", Integer.MAX_VALUE);
+
+        File file = folder.newFile("issues.idx");
+        index.write(file);
+        VisualExpertIssueIndex read = VisualExpertIssueIndex.read(file);
+
+        assertEquals(202, read.getSize());
+        assertEquals(index.getCountsByRule(), read.getCountsByRule());
+        assertEquals(index.getCountsByFile(), read.getCountsByFile());
+        assertEquals(index.getCountsBySeverity(), read.getCountsBySeverity());
+
+        List<VisualExpertIssueIndex.Issue> issues = read.filter(null, null, null, Integer.MAX_VALUE);
+        assertEquals(202, issues.size());
+        assertEquals("R1", issues.get(1).getRule());
+        assertEquals("file1.sql", issues.get(1).getFile());
+        assertEquals("Low", issues.get(1).getSeverity());
+        assertEquals("message 1", issues.get(1).getMessage());
+        assertEquals(1, issues.get(1).getLine());
+
+        // Missing values and the -1 line sentinel survive the varint encoding
+        assertEquals("", issues.get(200).getFile());
+        assertEquals("", issues.get(200).getMessage());
+        assertEquals(-1, issues.get(200).getLine());
+        assertEquals(Integer.MAX_VALUE, issues.get(201).getLine());
+    }
+
+    @Test
+    public void filterByRuleFileAndSeverity() {
+
+        VisualExpertIssueIndex index = new VisualExpertIssueIndex();
+        index.addIssue("R1", "a.sql", "High", "m1", 1);
+        index.addIssue("R1", "b.sql", "Low", "m2", 2);
+        index.addIssue("R2", "a.sql", "High", "m3", 3);
+
+        assertEquals(2, index.filter("R1", null, null, 10).size());
+        assertEquals(1, index.filter("R1", "a.sql", "High", 10).size());
+        assertEquals(2, index.filter(null, "a.sql", null, 10).size());
+        assertEquals(1, index.filter(null, null, "High", 1).size());
+        assertTrue(index.filter("unknown", null, null, 10).isEmpty());
+
+        Map<String, Integer> bySeverity = index.getCountsBySeverity();
+        assertEquals(Integer.valueOf(2), bySeverity.get("High"));
+        assertEquals(Integer.valueOf(1), bySeverity.get("Low"));
+    }
+
+    @Test
+    public void longValuesAreTruncated() throws Exception {
+
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            message.append('\u00e9');
+        }
+
+        VisualExpertIssueIndex index = new VisualExpertIssueIndex();
+        index.addIssue("R1", "a.sql", "High", message.toString(), 1);
+
+        File file = folder.newFile("issues.idx");
+        index.write(file);
+
+        String read = VisualExpertIssueIndex.read(file).filter(null, null, null, 1).get(0).getMessage();
+        assertEquals(16000, read.length());
+        assertEquals(message.substring(0, 16000), read);
+    }
+}
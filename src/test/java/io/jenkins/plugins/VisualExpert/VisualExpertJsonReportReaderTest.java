@@ -0,0 +1,62 @@
+package io.jenkins.plugins.VisualExpert;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.Test;
+
+public class VisualExpertJsonReportReaderTest {
+
+    private static VisualExpertIssueIndex read(String json) throws IOException {
+        return VisualExpertJsonReportReader.Read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void readsIssuesWithNestedLocation() throws Exception {
+
+        VisualExpertIssueIndex index = read("{"
+                + "\"project\": \"Demo\","
+                + "\"rules\": [{\"rule\": \"R1\", \"severity\": \"High\", \"description\": \"catalogue\"}],"
+                + "\"summary\": {\"rule\": \"R1\", \"count\": 2},"
+                + "\"issues\": ["
+                + "  {\"rule\": \"R1\", \"severity\": \"High\", \"message\": \"first\", \"location\": {\"file\": \"a.sql\", \"line\": 3}, \"tags\": [\"x\"]},"
+                + "  {\"Rule\": \"R2\", \"Severity\": \"Low\", \"Message\": \"second\", \"File\": \"b.sql\", \"Line\": \"7\","
+                + "   \"location\": {\"file\": \"ignored.sql\", \"line\": 99}}"
+                + "]}");
+
+        assertEquals(2, index.getSize());
+
+        List<VisualExpertIssueIndex.Issue> issues = index.filter(null, null, null, 10);
+        assertEquals("R1", issues.get(0).getRule());
+        assertEquals("a.sql", issues.get(0).getFile());
+        assertEquals(3, issues.get(0).getLine());
+        assertEquals("High", issues.get(0).getSeverity());
+        assertEquals("first", issues.get(0).getMessage());
+
+        // Own properties of the issue take precedence over nested ones
+        assertEquals("b.sql", issues.get(1).getFile());
+        assertEquals(7, issues.get(1).getLine());
+    }
+
+    @Test
+    public void readsRootIssueArray() throws Exception {
+
+        VisualExpertIssueIndex index = read("[{\"rule\": \"R1\", \"file\": \"a.sql\"}, {\"ruleName\": \"R2\"}, {\"other\": 1}]");
+
+        assertEquals(2, index.getSize());
+        assertEquals(-1, index.filter("R2", null, null, 1).get(0).getLine());
+    }
+
+    @Test
+    public void ignoresReportWithoutIssueArray() throws Exception {
+        assertEquals(0, read("{\"rules\": [{\"rule\": \"R1\"}], \"rule\": \"R2\"}").getSize());
+    }
+
+    @Test(expected = IOException.class)
+    public void failsOnInvalidJson() throws Exception {
+        read("{\"issues\": [{\"rule\": ");
+    }
+}
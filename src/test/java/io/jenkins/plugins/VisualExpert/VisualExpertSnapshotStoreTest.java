@@ -0,0 +1,178 @@
+package io.jenkins.plugins.VisualExpert;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import hudson.FilePath;
+import hudson.model.TaskListener;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class VisualExpertSnapshotStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File storeDir;
+    private VisualExpertSnapshotStore store;
+
+    @Before
+    public void createStore() throws IOException {
+        storeDir = folder.newFolder("store");
+        store = new VisualExpertSnapshotStore(storeDir.getPath());
+    }
+
+    private static void write(File dir, String path, String content) throws IOException {
+        File file = new File(dir, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(File dir, String path) throws IOException {
+        return new String(Files.readAllBytes(new File(dir, path).toPath()), StandardCharsets.UTF_8);
+    }
+
+    private int countBlobs() {
+        String[] blobs = new File(storeDir, "blobs").list();
+        return blobs == null ? 0 : blobs.length;
+    }
+
+    @Test
+    public void digestDoesNotMixFileBoundariesAndContents() throws IOException {
+
+        File one = folder.newFolder();
+        write(one, "a", "X\u0000b\u0000Y");
+
+        File two = folder.newFolder();
+        write(two, "a", "X");
+        write(two, "b", "Y");
+
+        assertNotEquals(VisualExpertSnapshotStore.Digest(one), VisualExpertSnapshotStore.Digest(two));
+    }
+
+    @Test
+    public void digestDependsOnPathsAndContentOnly() throws IOException {
+
+        File one = folder.newFolder();
+        write(one, "db/state.bin", "1");
+        write(one, "index.dat", "2");
+
+        File two = folder.newFolder();
+        write(two, "index.dat", "2");
+        write(two, "db/state.bin", "1");
+        write(two, VisualExpertSnapshotStore.MARKER_FILE_NAME, "previous");
+
+        String digest = VisualExpertSnapshotStore.Digest(one);
+
+        assertTrue(VisualExpertSnapshotStore.IsDigest(digest));
+        assertEquals(digest, VisualExpertSnapshotStore.Digest(two));
+
+        write(two, "db/state.bin", "3");
+        assertNotEquals(digest, VisualExpertSnapshotStore.Digest(two));
+    }
+
+    @Test
+    public void rejectsDigestsThatAreNotSha256() {
+
+        assertFalse(VisualExpertSnapshotStore.IsDigest(null));
+        assertFalse(VisualExpertSnapshotStore.IsDigest("../../x"));
+        assertFalse(VisualExpertSnapshotStore.IsDigest("ABCDEF0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF0123456789"));
+        assertTrue(VisualExpertSnapshotStore.IsDigest("abcdef0123456789abcdef0123456789abcdef0123456789abcdef0123456789"));
+    }
+
+    @Test
+    public void restoresSavedStateInPlaceOfPreviousOne() throws Exception {
+
+        File saved = folder.newFolder();
+        write(saved, "db/state.bin", "analyzed");
+        String digest = store.save("Sales", new FilePath(saved), TaskListener.NULL);
+
+        assertEquals(digest, read(saved, VisualExpertSnapshotStore.MARKER_FILE_NAME));
+
+        File agent = folder.newFolder();
+        write(agent, "db/state.bin", "stale");
+        write(agent, "obsolete.bin", "stale");
+
+        assertTrue(store.restore("Sales", new FilePath(agent), false, TaskListener.NULL));
+        assertEquals("analyzed", read(agent, "db/state.bin"));
+        assertFalse(new File(agent, "obsolete.bin").exists());
+        // Marker is only written back by a save after a successful analysis
+        assertFalse(new File(agent, VisualExpertSnapshotStore.MARKER_FILE_NAME).exists());
+    }
+
+    @Test
+    public void restoreSkipsUpToDateStateAndInvalidatesMarker() throws Exception {
+
+        File state = folder.newFolder();
+        write(state, "db/state.bin", "analyzed");
+        store.save("Sales", new FilePath(state), TaskListener.NULL);
+
+        assertFalse(store.restore("Sales", new FilePath(state), false, TaskListener.NULL));
+        assertFalse(new File(state, VisualExpertSnapshotStore.MARKER_FILE_NAME).exists());
+
+        // Without marker, as after a failed analysis, the snapshot is extracted again
+        write(state, "db/state.bin", "half updated");
+        assertTrue(store.restore("Sales", new FilePath(state), false, TaskListener.NULL));
+        assertEquals("analyzed", read(state, "db/state.bin"));
+    }
+
+    @Test
+    public void restoreVerifiesStateChangedBehindMarker() throws Exception {
+
+        File state = folder.newFolder();
+        write(state, "db/state.bin", "analyzed");
+        store.save("Sales", new FilePath(state), TaskListener.NULL);
+
+        write(state, "db/state.bin", "pre-warming killed");
+
+        assertTrue(store.restore("Sales", new FilePath(state), true, TaskListener.NULL));
+        assertEquals("analyzed", read(state, "db/state.bin"));
+    }
+
+    @Test
+    public void sharesBlobsAndDropsUnreferencedOnes() throws Exception {
+
+        File state = folder.newFolder();
+        write(state, "db/state.bin", "1");
+        store.save("Sales", new FilePath(state), TaskListener.NULL);
+        store.save("Billing", new FilePath(state), TaskListener.NULL);
+
+        assertEquals(1, countBlobs());
+
+        write(state, "db/state.bin", "2");
+        store.save("Sales", new FilePath(state), TaskListener.NULL);
+
+        // First state is still the one of Billing
+        assertEquals(2, countBlobs());
+
+        store.save("Billing", new FilePath(state), TaskListener.NULL);
+
+        assertEquals(1, countBlobs());
+    }
+
+    @Test
+    public void ignoresReferencesThatAreNotDigests() throws Exception {
+
+        File state = folder.newFolder();
+        write(state, "db/state.bin", "1");
+        store.save("Sales", new FilePath(state), TaskListener.NULL);
+
+        File[] refs = new File(storeDir, "refs").listFiles();
+        assertEquals(1, refs.length);
+        Files.write(refs[0].toPath(), "../../outside".getBytes(StandardCharsets.UTF_8));
+
+        File agent = folder.newFolder();
+        write(agent, "db/state.bin", "agent");
+
+        assertFalse(store.restore("Sales", new FilePath(agent), false, TaskListener.NULL));
+        assertEquals("agent", read(agent, "db/state.bin"));
+    }
+}